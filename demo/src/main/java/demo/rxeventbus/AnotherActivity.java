@@ -15,6 +15,7 @@ import demo.rxeventbus.event.ActivityEvent;
 import demo.rxeventbus.event.ServiceToActivityEvent;
 import demo.rxeventbus.event.ActivityToServiceEvent;
 import rxeventbus.RxEventBus;
+import rxeventbus.ThreadMode;
 import rxeventbus.annotation.Subscribe;
 
 /**
@@ -93,7 +94,7 @@ public class AnotherActivity extends AppCompatActivity {
         return super.onOptionsItemSelected(item);
     }
 
-    @Subscribe
+    @Subscribe(threadMode = ThreadMode.MAIN, sticky = true)
     public void onServiceEvent(ServiceToActivityEvent fse) {
         log.info("In " + getClass().getName() + " onServiceEvent() ServiceToActivityEvent.message = " + fse.getMessage());
     }
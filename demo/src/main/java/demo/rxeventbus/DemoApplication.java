@@ -0,0 +1,19 @@
+package demo.rxeventbus;
+
+import android.app.Application;
+
+import rxeventbus.RxEventBus;
+
+/**
+ * Registers the subscriber index generated by rxeventbus-compiler before any receiver subscribes.
+ */
+
+public class DemoApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        RxEventBus.addIndex(new DemoEventBusIndex());
+    }
+}
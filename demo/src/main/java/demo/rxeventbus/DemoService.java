@@ -40,7 +40,8 @@ public class DemoService extends Service {
         boolean alive = false;
 
         void start() {
-            RxEventBus.publish(new ServiceToActivityEvent("*** DemoService.starting()"));
+            // sticky, so an Activity subscribing later still learns the service is running
+            RxEventBus.publishSticky(new ServiceToActivityEvent("*** DemoService.starting()"));
 
             alive = true;
             t = new Thread(this);
@@ -57,6 +58,7 @@ public class DemoService extends Service {
         }
 
         void stop() {
+            RxEventBus.removeSticky(ServiceToActivityEvent.class);
             RxEventBus.publish(new ServiceToActivityEvent("*** DemoService.stopping()"));
             t.interrupt();
             alive = false;
@@ -85,7 +87,7 @@ public class DemoService extends Service {
     public void onActivityEvent(ActivityToServiceEvent ae) {
         log.info("In " + getClass().getName() + " onActivityEvent() ActivityEvent.message = " + ae.getMessage());
 
-        RxEventBus.publish("*** PING BACK - RECEIVED " + ae.getMessage());
+        RxEventBus.reply(ae, "*** PING BACK - RECEIVED " + ae.getMessage());
     }
 
 }
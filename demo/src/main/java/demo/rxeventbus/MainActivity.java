@@ -11,12 +11,17 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
 
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 import demo.rxeventbus.event.ActivityEvent;
 import demo.rxeventbus.event.ActivityToServiceEvent;
 import demo.rxeventbus.event.ServiceToActivityEvent;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.functions.Consumer;
 import rxeventbus.RxEventBus;
+import rxeventbus.ThreadMode;
 import rxeventbus.annotation.Subscribe;
 
 public class MainActivity extends AppCompatActivity {
@@ -28,6 +33,9 @@ public class MainActivity extends AppCompatActivity {
     private Button stopServiceBtn;
     private Button pingServiceBtn;
 
+    // pings still waiting for the service's reply
+    private final CompositeDisposable pings = new CompositeDisposable();
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -64,7 +72,7 @@ public class MainActivity extends AppCompatActivity {
         pingServiceBtn.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
-                RxEventBus.publish(new ActivityToServiceEvent("*** Hello from " + getClass().getName()));
+                pingService();
             }
         });
 
@@ -86,6 +94,25 @@ public class MainActivity extends AppCompatActivity {
         super.onDestroy();
 
         RxEventBus.unsubscribe(this);
+        pings.dispose();
+    }
+
+    private void pingService() {
+        pings.add(RxEventBus.request(new ActivityToServiceEvent("*** Hello from " + getClass().getName()),
+                String.class, 5, TimeUnit.SECONDS)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Consumer<String>() {
+                    @Override
+                    public void accept(String reply) {
+                        log.info("In " + MainActivity.this.getClass().getName() + " pingService() reply = " + reply);
+                    }
+                }, new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable error) {
+                        // the service isn't running, or didn't answer in time
+                        log.info("In " + MainActivity.this.getClass().getName() + " pingService() failed: " + error);
+                    }
+                }));
     }
 
     @Override
@@ -125,7 +152,7 @@ public class MainActivity extends AppCompatActivity {
         log.info("In " + getClass().getName() + " onActivityEvent() ActivityEvent.message = " + ae.getMessage());
     }
 
-    @Subscribe
+    @Subscribe(threadMode = ThreadMode.MAIN)
     public void onServiceEvent(ServiceToActivityEvent fse) {
         log.info("In " + getClass().getName() + " onServiceEvent() ServiceToActivityEvent.message = " + fse.getMessage());
     }
@@ -0,0 +1,18 @@
+package rxeventbus;
+
+import rxeventbus.annotation.Subscribe;
+
+/**
+ * Receiver on the Rx scheduler path, bounded like the ring buffer so producers wait for it
+ * instead of growing a queue.
+ */
+
+public class BackgroundReceiver {
+
+    long received;
+
+    @Subscribe(threadMode = ThreadMode.BACKGROUND, bufferSize = 1024, overflow = OverflowStrategy.BLOCK)
+    public void onEvent(BenchmarkEvent event) {
+        received += event.value;
+    }
+}
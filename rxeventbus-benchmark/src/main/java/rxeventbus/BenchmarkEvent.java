@@ -0,0 +1,14 @@
+package rxeventbus;
+
+/**
+ * Event published by the benchmarks.
+ */
+
+public final class BenchmarkEvent {
+
+    final long value;
+
+    public BenchmarkEvent(long value) {
+        this.value = value;
+    }
+}
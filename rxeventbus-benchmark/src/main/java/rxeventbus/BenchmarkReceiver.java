@@ -0,0 +1,17 @@
+package rxeventbus;
+
+import rxeventbus.annotation.Subscribe;
+
+/**
+ * Receiver with one cheap handler, so the benchmarks measure the bus rather than the handler.
+ */
+
+public class BenchmarkReceiver {
+
+    long received;
+
+    @Subscribe
+    public void onEvent(BenchmarkEvent event) {
+        received += event.value;
+    }
+}
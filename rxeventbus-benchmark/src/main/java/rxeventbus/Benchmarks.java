@@ -0,0 +1,26 @@
+package rxeventbus;
+
+/**
+ * Shared setup for the benchmarks.
+ */
+
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    static BenchmarkReceiver[] subscribe(int count) {
+        BenchmarkReceiver[] receivers = new BenchmarkReceiver[count];
+        for (int i = 0; i < count; i++) {
+            receivers[i] = new BenchmarkReceiver();
+            RxEventBus.subscribe(receivers[i]);
+        }
+        return receivers;
+    }
+
+    static void unsubscribe(BenchmarkReceiver[] receivers) {
+        for (BenchmarkReceiver receiver : receivers) {
+            RxEventBus.unsubscribe(receiver);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Four producers spread round robin over 1, 2 or 4 independent buses, each bus with its own
+ * receivers. With one bus every producer shares its table, registry lock and receivers; with
+ * four each producer has a bus to itself. Rerun with -Pthreads=n to see how either scales
+ * with cores.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class BusScalingBenchmark {
+
+    @Param({"1", "2", "4"})
+    int buses;
+
+    @Param({"10"})
+    int subscribers;
+
+    private final AtomicInteger producers = new AtomicInteger();
+    private RxEventBus[] bus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bus = new RxEventBus[buses];
+        for (int i = 0; i < buses; i++) {
+            bus[i] = RxEventBus.builder().build();
+            for (int j = 0; j < subscribers; j++) {
+                bus[i].register(new BenchmarkReceiver());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        final BenchmarkEvent event = new BenchmarkEvent(1);
+        final BenchmarkReceiver receiver = new BenchmarkReceiver();
+        RxEventBus bus;
+
+        @Setup(Level.Trial)
+        public void setUp(BusScalingBenchmark benchmark) {
+            bus = benchmark.bus[benchmark.producers.getAndIncrement() % benchmark.buses];
+        }
+    }
+
+    @Benchmark
+    public void publish(Producer producer) {
+        producer.bus.post(producer.event);
+    }
+
+    @Benchmark
+    public void registerPublishUnregister(Producer producer) {
+        producer.bus.register(producer.receiver);
+        producer.bus.post(producer.event);
+        producer.bus.unregister(producer.receiver);
+    }
+}
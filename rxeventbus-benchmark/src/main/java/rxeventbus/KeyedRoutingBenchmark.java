@@ -0,0 +1,97 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rxeventbus.annotation.Subscribe;
+
+/**
+ * Publishing an event meant for one of many receivers of its type: KEYED subscribes each
+ * receiver with its own key so the bus routes by key, FILTERED subscribes them all to the
+ * type and each compares the key itself. KEYED should stay flat as receivers grow.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyedRoutingBenchmark {
+
+    @Param({"10", "1000"})
+    int receivers;
+
+    @Param({"KEYED", "FILTERED"})
+    String routing;
+
+    private RxEventBus bus;
+    private Event[] events;
+    private int next;
+
+    public static final class Event implements KeyedEvent {
+
+        final String key;
+
+        Event(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public static class Receiver {
+
+        final String key;
+        long received;
+
+        Receiver(String key) {
+            this.key = key;
+        }
+
+        @Subscribe
+        public void onEvent(Event event) {
+            if (key == null || key.equals(event.key)) {
+                received++;
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bus = RxEventBus.builder().build();
+        events = new Event[receivers];
+        boolean keyed = routing.equals("KEYED");
+        for (int i = 0; i < receivers; i++) {
+            String key = "receiver-" + i;
+            events[i] = new Event(key);
+            if (keyed) {
+                bus.register(new Receiver(null), key);
+            }
+            else {
+                bus.register(new Receiver(key));
+            }
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        bus.post(events[next]);
+        next = next + 1 == events.length ? 0 : next + 1;
+    }
+}
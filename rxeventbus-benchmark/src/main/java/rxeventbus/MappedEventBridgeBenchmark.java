@@ -0,0 +1,105 @@
+package rxeventbus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import rxeventbus.annotation.Subscribe;
+
+/**
+ * Events carried through a {@link MappedEventBridge} file from one bus to another. post
+ * measures export throughput, held back by the importer once the ring fills; roundTrip
+ * waits for each event to arrive, its sampled percentiles are the end to end latency.
+ * Both ends run in this JVM, on the same mapped file two processes would share.
+ */
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedEventBridgeBenchmark {
+
+    private File file;
+    private MappedEventBridge importer;
+    private MappedEventBridge exporter;
+    private RxEventBus bus;
+    private final Receiver receiver = new Receiver();
+    private long sequence;
+
+    public static final class Ping {
+        final long sequence;
+
+        Ping(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    static final class PingCodec implements EventCodec<Ping> {
+        @Override
+        public void encode(Ping event, ByteBuffer buffer) {
+            buffer.putLong(event.sequence);
+        }
+
+        @Override
+        public Ping decode(ByteBuffer buffer) {
+            return new Ping(buffer.getLong());
+        }
+    }
+
+    public static class Receiver {
+        volatile long last = -1;
+
+        @Subscribe
+        public void onPing(Ping ping) {
+            last = ping.sequence;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = File.createTempFile("rxeventbus", ".ring");
+        RxEventBus importing = RxEventBus.builder().build();
+        importing.register(receiver);
+        importer = MappedEventBridge.builder(file).codec(1, Ping.class, new PingCodec()).importInto(importing);
+        bus = RxEventBus.builder().build();
+        exporter = MappedEventBridge.builder(file).codec(1, Ping.class, new PingCodec()).exportFrom(bus);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        exporter.close();
+        importer.close();
+        file.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void post() {
+        bus.post(new Ping(sequence++));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void roundTrip() {
+        long sent = sequence++;
+        bus.post(new Ping(sent));
+        while (receiver.last < sent) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Publishing to a few cheap receivers with metrics off and on. Off should match a bus
+ * without metrics support, on pays for the counters and a clock read around each call.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"false", "true"})
+    boolean metrics;
+
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+    private RxEventBus bus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bus = RxEventBus.builder().metrics(metrics).build();
+        for (int i = 0; i < 4; i++) {
+            bus.register(new BenchmarkReceiver());
+        }
+    }
+
+    @Benchmark
+    public void post() {
+        bus.post(event);
+    }
+}
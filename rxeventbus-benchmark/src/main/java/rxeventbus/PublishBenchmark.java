@@ -0,0 +1,83 @@
+package rxeventbus;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RxEventBus.publish() fan-out to 0, 1, 10 and 1000 subscribers, from a single producer
+ * and from four producers publishing the same event type, plus a batch of events published
+ * one by one against publishAll().
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PublishBenchmark {
+
+    @Param({"0", "1", "10", "1000"})
+    int subscribers;
+
+    private static final int BATCH = 100;
+
+    private final BenchmarkEvent event = new BenchmarkEvent(1);
+    private final List<BenchmarkEvent> batch = Arrays.asList(new BenchmarkEvent[BATCH]);
+    private BenchmarkReceiver[] receivers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        receivers = Benchmarks.subscribe(subscribers);
+        for (int i = 0; i < BATCH; i++) {
+            batch.set(i, new BenchmarkEvent(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Benchmarks.unsubscribe(receivers);
+    }
+
+    @Benchmark
+    public void singleProducer() {
+        RxEventBus.publish(event);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batchOneByOne() {
+        for (BenchmarkEvent e : batch) {
+            RxEventBus.publish(e);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void batchPublishAll() {
+        RxEventBus.publishAll(batch);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void contendedProducers() {
+        RxEventBus.publish(event);
+    }
+}
@@ -0,0 +1,86 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * subscribe/unsubscribe churn of one receiver while other receivers of the same class stay
+ * subscribed, and the reflective scan RxEventBus falls back to without a generated index.
+ * cachedBind and rescanBind bind a receiver to its methods with the per-class cache and
+ * with a fresh scan per bind, the cost before the cache.
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"0", "1000"})
+    int subscribed;
+
+    private final BenchmarkReceiver receiver = new BenchmarkReceiver();
+    private final SubscriberMethodFinder finder = new SubscriberMethodFinder();
+    private BenchmarkReceiver[] receivers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        receivers = Benchmarks.subscribe(subscribed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Benchmarks.unsubscribe(receivers);
+    }
+
+    @Benchmark
+    public void subscribeUnsubscribe() {
+        RxEventBus.subscribe(receiver);
+        RxEventBus.unsubscribe(receiver);
+    }
+
+    @Benchmark
+    public SubscriberMethod[] reflectiveScan() {
+        finder.clearCache();
+        return finder.findSubscriberMethods(BenchmarkReceiver.class);
+    }
+
+    @Benchmark
+    public SubscriberMethod[] cachedScan() {
+        return finder.findSubscriberMethods(BenchmarkReceiver.class);
+    }
+
+    @Benchmark
+    public int cachedBind() {
+        return bind();
+    }
+
+    @Benchmark
+    public int rescanBind() {
+        finder.clearCache();
+        return bind();
+    }
+
+    private int bind() {
+        int sink = 0;
+        for (SubscriberMethod method : finder.findSubscriberMethods(BenchmarkReceiver.class)) {
+            sink += new Subscriber(receiver, method).hashCode();
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,178 @@
+package rxeventbus.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Writes the source of a generated SubscriberIndex.
+ *
+ * Receivers or event types that the index can't reference (private, or package private in
+ * another package) are left out, RxEventBus falls back to reflection for those receivers.
+ */
+
+final class IndexWriter {
+
+    private final ProcessingEnvironment env;
+    private final String indexPackage;
+    private final String indexName;
+
+    private final List<TypeElement> receivers = new ArrayList<>();
+    private final List<List<ExecutableElement>> receiverMethods = new ArrayList<>();
+
+    IndexWriter(ProcessingEnvironment env, String indexPackage, String indexName) {
+        this.env = env;
+        this.indexPackage = indexPackage;
+        this.indexName = indexName;
+    }
+
+    void addReceiver(TypeElement receiver, List<ExecutableElement> methods) {
+        if (!isVisible(receiver)) {
+            note(receiver, receiver + " is not visible from " + indexPackage + ", it will be scanned with reflection");
+            return;
+        }
+        for (ExecutableElement method : methods) {
+            TypeMirror param = method.getParameters().get(0).asType();
+            if (param.getKind() != TypeKind.DECLARED || !isVisible((TypeElement) ((DeclaredType) param).asElement())) {
+                note(method, "Event type of " + method + " is not visible from " + indexPackage
+                        + ", " + receiver + " will be scanned with reflection");
+                return;
+            }
+        }
+        receivers.add(receiver);
+        receiverMethods.add(methods);
+    }
+
+    void write(Writer writer) throws IOException {
+        if (!indexPackage.isEmpty()) {
+            writer.write("package " + indexPackage + ";\n\n");
+        }
+        writer.write("import java.util.HashMap;\n");
+        writer.write("import java.util.Map;\n\n");
+        writer.write("import rxeventbus.EventInvoker;\n");
+        writer.write("import rxeventbus.OverflowStrategy;\n");
+        writer.write("import rxeventbus.ThreadMode;\n");
+        writer.write("import rxeventbus.index.SubscriberIndex;\n");
+        writer.write("import rxeventbus.index.SubscriberInfo;\n");
+        writer.write("import rxeventbus.index.SubscriberMethodInfo;\n\n");
+        writer.write("/**\n * Generated by rxeventbus-compiler, do not edit.\n */\n");
+        // invokers cast events to the erased type of generic parameters
+        writer.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        writer.write("public final class " + indexName + " implements SubscriberIndex {\n\n");
+        writer.write("    private static final Map<Class<?>, SubscriberInfo> INDEX = new HashMap<>();\n\n");
+
+        writer.write("    static {\n");
+        int invoker = 0;
+        for (int i = 0; i < receivers.size(); i++) {
+            writer.write("        put(new SubscriberInfo(" + typeName(receivers.get(i).asType())
+                    + ".class, new SubscriberMethodInfo[] {\n");
+            for (ExecutableElement method : receiverMethods.get(i)) {
+                writer.write("                new SubscriberMethodInfo(\"" + method.getSimpleName() + "\", "
+                        + eventTypeName(method) + ".class, new Invoker" + invoker++ + "(), "
+                        + "ThreadMode." + subscribeValue(method, "threadMode") + ", "
+                        + subscribeValue(method, "sticky") + ", "
+                        + subscribeValue(method, "bufferSize") + ", "
+                        + "OverflowStrategy." + subscribeValue(method, "overflow") + ", "
+                        + subscribeValue(method, "priority") + ", "
+                        + subscribeValue(method, "key") + ", "
+                        + subscribeValue(method, "debounceMs") + ", "
+                        + subscribeValue(method, "throttleMs") + ", "
+                        + subscribeValue(method, "sampleMs") + "),\n");
+            }
+            writer.write("        }));\n");
+        }
+        writer.write("    }\n\n");
+
+        writer.write("    private static void put(SubscriberInfo info) {\n");
+        writer.write("        INDEX.put(info.getReceiverClass(), info);\n");
+        writer.write("    }\n\n");
+
+        writer.write("    @Override\n");
+        writer.write("    public SubscriberInfo getSubscriberInfo(Class<?> receiverClass) {\n");
+        writer.write("        return INDEX.get(receiverClass);\n");
+        writer.write("    }\n");
+
+        invoker = 0;
+        for (int i = 0; i < receivers.size(); i++) {
+            String receiver = typeName(receivers.get(i).asType());
+            for (ExecutableElement method : receiverMethods.get(i)) {
+                writer.write("\n    // " + receiver + "#" + method.getSimpleName() + "\n");
+                writer.write("    private static final class Invoker" + invoker++ + " implements EventInvoker {\n");
+                writer.write("        @Override\n");
+                writer.write("        public void invoke(Object receiver, Object event) throws Throwable {\n");
+                writer.write("            ((" + receiver + ") receiver)." + method.getSimpleName()
+                        + "((" + eventTypeName(method) + ") event);\n");
+                writer.write("        }\n");
+                writer.write("    }\n");
+            }
+        }
+
+        writer.write("}\n");
+    }
+
+    /**
+     * @return the source form of a @Subscribe attribute, its default if not set
+     */
+    private String subscribeValue(ExecutableElement method, String attribute) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotation.getQualifiedName().contentEquals(SubscribeProcessor.SUBSCRIBE)) {
+                continue;
+            }
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                    env.getElementUtils().getElementValuesWithDefaults(mirror);
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(attribute)) {
+                    Object constant = value.getValue().getValue();
+                    // enum constants come back as their VariableElement
+                    return constant instanceof Element ? ((Element) constant).getSimpleName().toString()
+                            : value.getValue().toString();
+                }
+            }
+        }
+        throw new IllegalArgumentException(method + " has no @Subscribe attribute " + attribute);
+    }
+
+    private String eventTypeName(ExecutableElement method) {
+        return typeName(method.getParameters().get(0).asType());
+    }
+
+    private String typeName(TypeMirror type) {
+        Types types = env.getTypeUtils();
+        return types.erasure(type).toString();
+    }
+
+    private boolean isVisible(TypeElement type) {
+        Element element = type;
+        while (element instanceof TypeElement) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (!element.getModifiers().contains(Modifier.PUBLIC)
+                    && !env.getElementUtils().getPackageOf(element).getQualifiedName().contentEquals(indexPackage)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return true;
+    }
+
+    private void note(Element element, String message) {
+        env.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+}
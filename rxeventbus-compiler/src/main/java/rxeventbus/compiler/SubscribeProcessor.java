@@ -0,0 +1,199 @@
+package rxeventbus.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Annotation processor for @Subscribe. Applies the same checks RxEventBus makes at runtime
+ * and, when the "rxEventBusIndex" option names a class, generates a SubscriberIndex with a
+ * typed EventInvoker per subscriber method so receivers are registered without reflection.
+ *
+ * <b>
+ * javaCompileOptions {
+ *     annotationProcessorOptions {
+ *         arguments = [ rxEventBusIndex : 'com.example.MyEventBusIndex' ]
+ *     }
+ * }
+ * </b>
+ */
+
+@SupportedAnnotationTypes(SubscribeProcessor.SUBSCRIBE)
+@SupportedOptions(SubscribeProcessor.OPTION_INDEX)
+public class SubscribeProcessor extends AbstractProcessor {
+
+    static final String SUBSCRIBE = "rxeventbus.annotation.Subscribe";
+    static final String KEYED_EVENT = "rxeventbus.KeyedEvent";
+    static final String OPTION_INDEX = "rxEventBusIndex";
+
+    // @Subscribe methods by receiver class name, in declaration order, collected over every round;
+    // names rather than elements because javac may hand out fresh elements in later rounds
+    private final Map<String, Set<String>> methodsByReceiver = new LinkedHashMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+
+        // sources generated in any round may declare @Subscribe methods, so the index waits for the last one
+        if (env.processingOver()) {
+            String indexClass = processingEnv.getOptions().get(OPTION_INDEX);
+            if (indexClass != null && !methodsByReceiver.isEmpty()) {
+                writeIndex(indexClass);
+            }
+            return false;
+        }
+
+        TypeElement subscribe = processingEnv.getElementUtils().getTypeElement(SUBSCRIBE);
+        if (subscribe == null || annotations.isEmpty()) {
+            return false;
+        }
+
+        for (Element element : env.getElementsAnnotatedWith(subscribe)) {
+            if (element.getKind() == ElementKind.METHOD && checkMethod((ExecutableElement) element)) {
+                TypeElement receiver = (TypeElement) element.getEnclosingElement();
+                String receiverName = receiver.getQualifiedName().toString();
+                Set<String> methods = methodsByReceiver.get(receiverName);
+                if (methods == null) {
+                    methods = new LinkedHashSet<>();
+                    methodsByReceiver.put(receiverName, methods);
+                }
+                methods.add(element.toString());
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Same rules as RxEventBus applies when scanning a receiver with reflection.
+     */
+    private boolean checkMethod(ExecutableElement method) {
+        Messager messager = processingEnv.getMessager();
+
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.size() != 1) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Method " + method + " has @Subscribe annotation but requires "
+                    + parameters.size() + " arguments.  Method requires a single argument.", method);
+            return false;
+        }
+
+        TypeMirror param = parameters.get(0).asType();
+
+        if (!method.getModifiers().contains(Modifier.PUBLIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Method " + method + " has @Subscribe annotation on " + param
+                    + " but is not 'public'.", method);
+            return false;
+        }
+
+        Object key = explicitValue(method, "key");
+        TypeElement keyedEvent = processingEnv.getElementUtils().getTypeElement(KEYED_EVENT);
+        if (key != null && !((String) key).isEmpty() && keyedEvent != null
+                && !processingEnv.getTypeUtils().isAssignable(param, keyedEvent.asType())) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Method " + method + " has a @Subscribe key but " + param
+                    + " is not a KeyedEvent.", method);
+            return false;
+        }
+
+        int paced = 0;
+        for (String attribute : new String[] {"debounceMs", "throttleMs", "sampleMs"}) {
+            Object millis = explicitValue(method, attribute);
+            if (millis == null) {
+                continue;
+            }
+            if ((Long) millis < 0) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Method " + method + " has a negative @Subscribe "
+                        + attribute + ".", method);
+                return false;
+            }
+            if ((Long) millis > 0) {
+                paced++;
+            }
+        }
+        if (paced > 1) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Method " + method + " may only set one of @Subscribe "
+                    + "debounceMs, throttleMs and sampleMs.", method);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the @Subscribe attribute's value if it is set explicitly, null for its default
+     */
+    private static Object explicitValue(ExecutableElement method, String attribute) {
+        for (AnnotationMirror mirror : method.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotation.getQualifiedName().contentEquals(SUBSCRIBE)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : mirror.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals(attribute)) {
+                    return value.getValue().getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private void writeIndex(String indexClass) {
+        int period = indexClass.lastIndexOf('.');
+        String indexPackage = period > 0 ? indexClass.substring(0, period) : "";
+        String indexName = indexClass.substring(period + 1);
+
+        IndexWriter index = new IndexWriter(processingEnv, indexPackage, indexName);
+        for (Map.Entry<String, Set<String>> entry : methodsByReceiver.entrySet()) {
+            TypeElement receiver = processingEnv.getElementUtils().getTypeElement(entry.getKey());
+            List<ExecutableElement> methods = new ArrayList<>();
+            for (Element member : receiver.getEnclosedElements()) {
+                if (member.getKind() == ElementKind.METHOD && entry.getValue().contains(member.toString())) {
+                    methods.add((ExecutableElement) member);
+                }
+            }
+            index.addReceiver(receiver, methods);
+        }
+
+        try {
+            JavaFileObject source = processingEnv.getFiler().createSourceFile(indexClass);
+            Writer writer = source.openWriter();
+            try {
+                index.write(writer);
+            }
+            finally {
+                writer.close();
+            }
+        }
+        catch (IOException ioe) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write subscriber index " + indexClass + ": " + ioe);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package rxeventbus.compiler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import io.reactivex.Single;
+import org.reactivestreams.Publisher;
+import rxeventbus.annotation.Subscribe;
+import rxeventbus.index.SubscriberIndex;
+import rxeventbus.index.SubscriberInfo;
+import rxeventbus.index.SubscriberMethodInfo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the processor over sample receivers with javac: the generated index compiles without
+ * warnings, describes the same methods reflection finds, including those in sources generated
+ * in later rounds, and leaves out receivers it can't reference.
+ */
+public class SubscribeProcessorTest {
+
+    private static final String BASE = "package sample;\n"
+            + "import java.util.ArrayList;\n"
+            + "import java.util.List;\n"
+            + "import rxeventbus.annotation.Subscribe;\n"
+            + "public class Base {\n"
+            + "    public final List<Object> received = new ArrayList<>();\n"
+            + "    @Subscribe public void onBase(String event) { received.add(event); }\n"
+            + "}\n";
+
+    private static final String RECEIVER = "package sample;\n"
+            + "import java.util.List;\n"
+            + "import rxeventbus.ThreadMode;\n"
+            + "import rxeventbus.annotation.Subscribe;\n"
+            + "public class Receiver extends Base {\n"
+            + "    @Subscribe(threadMode = ThreadMode.BACKGROUND, priority = 3)\n"
+            + "    public void onNumber(Integer event) { received.add(event); }\n"
+            + "    @Subscribe public void onList(List<String> event) { received.add(event.get(0)); }\n"
+            + "}\n";
+
+    // nothing of its own, reflection finds nothing either
+    private static final String PLAIN = "package sample;\n"
+            + "public class Plain extends Base {\n"
+            + "}\n";
+
+    // package private outside the index's package
+    private static final String HIDDEN = "package sample;\n"
+            + "import rxeventbus.annotation.Subscribe;\n"
+            + "class Hidden {\n"
+            + "    @Subscribe public void onEvent(String event) {}\n"
+            + "}\n";
+
+    private static final String NOT_PUBLIC = "package sample;\n"
+            + "import rxeventbus.annotation.Subscribe;\n"
+            + "public class NotPublic {\n"
+            + "    @Subscribe void onEvent(String event) {}\n"
+            + "}\n";
+
+    private static final String GENERATED = "package sample;\n"
+            + "import rxeventbus.annotation.Subscribe;\n"
+            + "public class Generated {\n"
+            + "    @Subscribe public void onGenerated(Long event) {}\n"
+            + "}\n";
+
+    /**
+     * Writes sample.Generated in the first round, so its @Subscribe method only shows up in the second.
+     */
+    @SupportedAnnotationTypes("*")
+    private static class GeneratingProcessor extends AbstractProcessor {
+
+        private boolean generated;
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment env) {
+            if (!generated) {
+                generated = true;
+                try (Writer writer = processingEnv.getFiler().createSourceFile("sample.Generated").openWriter()) {
+                    writer.write(GENERATED);
+                }
+                catch (IOException ioe) {
+                    throw new IllegalStateException(ioe);
+                }
+            }
+            return false;
+        }
+    }
+
+    private File output;
+
+    @Before
+    public void setUp() throws IOException {
+        output = File.createTempFile("rxeventbus-compiler", "");
+        assertTrue(output.delete() && output.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        delete(output);
+    }
+
+    @Test
+    public void generatedIndexMatchesReflection() throws Throwable {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(
+                source("sample.Base", BASE), source("sample.Receiver", RECEIVER),
+                source("sample.Plain", PLAIN), source("sample.Hidden", HIDDEN));
+
+        assertCompiledCleanly(diagnostics);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toURI().toURL()},
+                getClass().getClassLoader())) {
+            SubscriberIndex index = (SubscriberIndex) loader.loadClass("index.SampleIndex").newInstance();
+            Class<?> base = loader.loadClass("sample.Base");
+            Class<?> receiver = loader.loadClass("sample.Receiver");
+
+            // each class indexes only what it declares, like the reflective scan
+            assertEquals(reflected(base), indexed(index.getSubscriberInfo(base)));
+            assertEquals(reflected(receiver), indexed(index.getSubscriberInfo(receiver)));
+            assertNull(index.getSubscriberInfo(loader.loadClass("sample.Plain")));
+            assertTrue(reflected(loader.loadClass("sample.Plain")).isEmpty());
+            // left to reflection
+            assertNull(index.getSubscriberInfo(loader.loadClass("sample.Hidden")));
+
+            Object instance = receiver.newInstance();
+            for (SubscriberMethodInfo method : index.getSubscriberInfo(receiver).getMethods()) {
+                if (method.getMethodName().equals("onList")) {
+                    method.getInvoker().invoke(instance, Collections.singletonList("generic"));
+                }
+            }
+            assertEquals(Arrays.<Object>asList("generic"), receiver.getField("received").get(instance));
+        }
+    }
+
+    @Test
+    public void indexIncludesSourcesGeneratedInLaterRounds() throws Throwable {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(
+                Arrays.<Processor>asList(new GeneratingProcessor(), new SubscribeProcessor()),
+                source("sample.Base", BASE));
+
+        assertCompiledCleanly(diagnostics);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[] {output.toURI().toURL()},
+                getClass().getClassLoader())) {
+            SubscriberIndex index = (SubscriberIndex) loader.loadClass("index.SampleIndex").newInstance();
+            Class<?> base = loader.loadClass("sample.Base");
+            Class<?> generated = loader.loadClass("sample.Generated");
+
+            assertEquals(reflected(base), indexed(index.getSubscriberInfo(base)));
+            assertNotNull(index.getSubscriberInfo(generated));
+            assertEquals(reflected(generated), indexed(index.getSubscriberInfo(generated)));
+        }
+    }
+
+    @Test
+    public void nonPublicMethodIsAnError() throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(source("sample.NotPublic", NOT_PUBLIC));
+
+        boolean reported = false;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                assertTrue(diagnostic.getMessage(null), diagnostic.getMessage(null).contains("is not 'public'"));
+                reported = true;
+            }
+        }
+        assertTrue(reported);
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile(JavaFileObject... sources) throws IOException {
+        return compile(Collections.singletonList(new SubscribeProcessor()), sources);
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile(List<Processor> processors, JavaFileObject... sources)
+            throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("tests need a JDK", compiler);
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            files.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singleton(output));
+            files.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singleton(output));
+            files.setLocation(StandardLocation.CLASS_PATH, Arrays.asList(
+                    codeSource(Subscribe.class), codeSource(Single.class), codeSource(Publisher.class)));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-Xlint:unchecked,rawtypes",
+                            "-A" + SubscribeProcessor.OPTION_INDEX + "=index.SampleIndex"),
+                    null, Arrays.asList(sources));
+            task.setProcessors(processors);
+            task.call();
+        }
+        finally {
+            files.close();
+        }
+        return diagnostics;
+    }
+
+    /**
+     * No errors or warnings, apart from javac's notice that the index, written in the last round,
+     * isn't processed itself.
+     */
+    private static void assertCompiledCleanly(DiagnosticCollector<JavaFileObject> diagnostics) {
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if ("compiler.warn.proc.file.create.last.round".equals(diagnostic.getCode())) {
+                continue;
+            }
+            assertFalse(diagnostic.toString(), diagnostic.getKind() == Diagnostic.Kind.ERROR
+                    || diagnostic.getKind() == Diagnostic.Kind.WARNING
+                    || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING);
+        }
+    }
+
+    /**
+     * @return name, event type and attributes of the methods getDeclaredMethods() finds
+     */
+    private static Set<String> reflected(Class<?> receiverClass) {
+        Set<String> methods = new HashSet<>();
+        for (Method method : receiverClass.getDeclaredMethods()) {
+            Subscribe subscribe = method.getAnnotation(Subscribe.class);
+            if (subscribe != null && !method.isBridge()) {
+                methods.add(method.getName() + ":" + method.getParameterTypes()[0].getName() + ":"
+                        + subscribe.threadMode() + ":" + subscribe.priority() + ":" + subscribe.sticky());
+            }
+        }
+        return methods;
+    }
+
+    private static Set<String> indexed(SubscriberInfo info) {
+        Set<String> methods = new HashSet<>();
+        for (SubscriberMethodInfo method : info.getMethods()) {
+            methods.add(method.getMethodName() + ":" + method.getEventType().getName() + ":"
+                    + method.getThreadMode() + ":" + method.getPriority() + ":" + method.isSticky());
+        }
+        return methods;
+    }
+
+    private static File codeSource(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+        }
+        catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JavaFileObject source(String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
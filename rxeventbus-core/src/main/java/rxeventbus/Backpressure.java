@@ -0,0 +1,27 @@
+package rxeventbus;
+
+/**
+ * Bounded buffer size and overflow strategy of a subscriber that isn't called on the
+ * publishing thread.
+ */
+
+final class Backpressure {
+
+    // bufferSize 0 means unbounded, events queue on the ThreadMode's poster
+    static final Backpressure NONE = new Backpressure(0, OverflowStrategy.LATEST);
+
+    final int bufferSize;
+    final OverflowStrategy overflow;
+
+    Backpressure(int bufferSize, OverflowStrategy overflow) {
+        if (bufferSize < 0) {
+            throw new IllegalArgumentException("bufferSize must not be negative, was " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+    }
+
+    boolean isBounded() {
+        return bufferSize > 0;
+    }
+}
@@ -0,0 +1,135 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops calling one subscriber after too many failures. Closed, it counts failures in a
+ * fixed window starting at the first one; maxFailures within the window open it. Open, every
+ * event is skipped until openFor has passed, then the next event goes through as a probe
+ * while the others are still skipped: success closes the breaker, failure opens it again.
+ *
+ * A closed breaker costs one volatile read per event, state changes take the lock.
+ */
+
+final class CircuitBreaker {
+
+    /**
+     * When breakers open and for how long, shared by every subscriber of a bus.
+     */
+    static final class Policy {
+
+        final int maxFailures;
+        final long windowNanos;
+        final long openNanos;
+
+        /**
+         * @throws IllegalArgumentException if maxFailures is below 1, or window or openFor is not positive
+         */
+        Policy(int maxFailures, long window, long openFor, TimeUnit unit) {
+            if (maxFailures < 1 || window <= 0 || openFor <= 0) {
+                throw new IllegalArgumentException("maxFailures must be at least 1, window and openFor positive");
+            }
+            this.maxFailures = maxFailures;
+            this.windowNanos = unit.toNanos(window);
+            this.openNanos = unit.toNanos(openFor);
+        }
+    }
+
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    // open, with a probe let through and not back yet
+    private static final int PROBING = 2;
+
+    private final Policy policy;
+
+    private volatile int state = CLOSED;
+    // guarded by this
+    private int failures;
+    private long windowStart;
+    private long openedAt;
+    private long skipped;
+
+    CircuitBreaker(Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @return whether to call the subscriber with the next event
+     */
+    boolean allow() {
+        if (state == CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state == OPEN && System.nanoTime() - openedAt >= policy.openNanos) {
+                state = PROBING;
+                return true;
+            }
+            if (state == CLOSED) {
+                return true;
+            }
+            skipped++;
+            return false;
+        }
+    }
+
+    /**
+     * @return events skipped while it was open if this success closed the breaker, otherwise -1
+     */
+    long onSuccess() {
+        if (state == CLOSED) {
+            return -1;
+        }
+        synchronized (this) {
+            if (state != PROBING) {
+                return -1;
+            }
+            state = CLOSED;
+            failures = 0;
+            long count = skipped;
+            skipped = 0;
+            return count;
+        }
+    }
+
+    /**
+     * @return whether this failure opened the breaker
+     */
+    synchronized boolean onFailure() {
+        long now = System.nanoTime();
+        if (state == PROBING) {
+            state = OPEN;
+            openedAt = now;
+            return true;
+        }
+        if (state == OPEN) {
+            // an event let through before it opened
+            return false;
+        }
+        if (failures == 0 || now - windowStart >= policy.windowNanos) {
+            failures = 0;
+            windowStart = now;
+        }
+        if (++failures >= policy.maxFailures) {
+            state = OPEN;
+            openedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reopens the breaker without counting a failure if the call that ended was a probe,
+     * so the next probe can go through after openFor.
+     */
+    synchronized void abortProbe() {
+        if (state == PROBING) {
+            state = OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    boolean isOpen() {
+        return state != CLOSED;
+    }
+}
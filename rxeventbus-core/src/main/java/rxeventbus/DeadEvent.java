@@ -0,0 +1,44 @@
+package rxeventbus;
+
+/**
+ * Wraps an event nobody subscribed to, for diagnostics. Only posted on buses with dead
+ * events turned on, see {@link RxEventBus#setDeadEvents(int)}, and rate limited there;
+ * {@link #getSuppressedCount()} tells how many were skipped since the previous one.
+ * Delivered on the thread the event was published on.
+ */
+
+public final class DeadEvent {
+
+    private final RxEventBus bus;
+    private final Object event;
+    private final long suppressedCount;
+
+    DeadEvent(RxEventBus bus, Object event, long suppressedCount) {
+        this.bus = bus;
+        this.event = event;
+        this.suppressedCount = suppressedCount;
+    }
+
+    /**
+     * @return the bus the event was published on
+     */
+    public RxEventBus getBus() {
+        return bus;
+    }
+
+    public Object getEvent() {
+        return event;
+    }
+
+    /**
+     * @return dead events dropped by the rate limit since the previous DeadEvent
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadEvent{event=" + event + ", suppressedCount=" + suppressedCount + "}";
+    }
+}
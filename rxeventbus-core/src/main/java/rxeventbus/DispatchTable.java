@@ -0,0 +1,293 @@
+package rxeventbus;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of who receives what. RxEventBus publishes a new table on every
+ * subscribe/unsubscribe and swaps it in with a single volatile write, so publishers read it
+ * without locking and walk plain arrays that never change underneath them.
+ *
+ * With event inheritance on, subscribers of an event's superclasses and interfaces receive
+ * it too. The merged array for each concrete event class is built on first publish and kept
+ * for the life of the table.
+ *
+ * Every array is kept sorted by descending priority, stable in subscription order, so
+ * publishers never sort.
+ *
+ * Keyed subscribers are indexed by event type and then key, apart from the others, so a
+ * {@link KeyedEvent} only reaches the subscribers of its key plus the unkeyed ones. The
+ * merged array for each event class and key is built on first publish like the inherited
+ * ones.
+ */
+
+final class DispatchTable {
+
+    static final DispatchTable EMPTY = new DispatchTable(new HashMap<Class<?>, Subscriber[]>(),
+            new HashMap<Class<?>, Map<String, Subscriber[]>>(), new HashMap<ReceiverReference, Subscriber[]>(), false);
+
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private static final Comparator<Subscriber> BY_PRIORITY = new Comparator<Subscriber>() {
+        @Override
+        public int compare(Subscriber a, Subscriber b) {
+            return a.getPriority() > b.getPriority() ? -1 : a.getPriority() < b.getPriority() ? 1 : 0;
+        }
+    };
+
+    // Subscribers by event type, never modified once the table is built
+    private final Map<Class<?>, Subscriber[]> subscribersByEvent;
+    // Keyed subscribers by event type and key, neither level modified once the table is built
+    private final Map<Class<?>, Map<String, Subscriber[]>> keyedByEvent;
+    // Subscribers by receiver instance
+    private final Map<ReceiverReference, Subscriber[]> subscribersByReceiver;
+
+    private final boolean eventInheritance;
+    // Subscribers of each concrete event class including its supertypes, filled on demand
+    private final ConcurrentHashMap<Class<?>, Subscriber[]> inheritedByEvent = new ConcurrentHashMap<>();
+    // Unkeyed plus keyed subscribers of each event class and key that has any, filled on demand
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Subscriber[]>> keyedByEventKey =
+            new ConcurrentHashMap<>();
+
+    private DispatchTable(Map<Class<?>, Subscriber[]> subscribersByEvent,
+                          Map<Class<?>, Map<String, Subscriber[]>> keyedByEvent,
+                          Map<ReceiverReference, Subscriber[]> subscribersByReceiver, boolean eventInheritance) {
+        this.subscribersByEvent = subscribersByEvent;
+        this.keyedByEvent = keyedByEvent;
+        this.subscribersByReceiver = subscribersByReceiver;
+        this.eventInheritance = eventInheritance;
+    }
+
+    /**
+     * @return the subscribers an event of this class is delivered to, never null
+     */
+    Subscriber[] getSubscribers(Class<?> eventClass) {
+        if (eventInheritance) {
+            Subscriber[] inherited = inheritedByEvent.get(eventClass);
+            return inherited != null ? inherited : resolveInherited(eventClass);
+        }
+        Subscriber[] subscribers = subscribersByEvent.get(eventClass);
+        return subscribers != null ? subscribers : NO_SUBSCRIBERS;
+    }
+
+    /**
+     * @return the subscribers a keyed event of this class is delivered to: the unkeyed ones
+     * and those of its key, never null
+     */
+    Subscriber[] getSubscribers(Class<?> eventClass, String key) {
+        if (keyedByEvent.isEmpty()) {
+            return getSubscribers(eventClass);
+        }
+        Map<String, Subscriber[]> byKey = keyedByEventKey.get(eventClass);
+        Subscriber[] subscribers = byKey != null ? byKey.get(key) : null;
+        return subscribers != null ? subscribers : resolveKeyed(eventClass, key);
+    }
+
+    boolean isEventInheritance() {
+        return eventInheritance;
+    }
+
+    DispatchTable withEventInheritance(boolean inheritance) {
+        return inheritance == eventInheritance ? this
+                : new DispatchTable(subscribersByEvent, keyedByEvent, subscribersByReceiver, inheritance);
+    }
+
+    /**
+     * @return the receiver's subscribers, or null if it isn't subscribed
+     */
+    Subscriber[] getReceiverSubscribers(ReceiverReference receiver) {
+        return subscribersByReceiver.get(receiver);
+    }
+
+    boolean isSubscribed(ReceiverReference receiver) {
+        return subscribersByReceiver.containsKey(receiver);
+    }
+
+    /**
+     * @return a copy of this table with the receiver's subscribers appended
+     */
+    DispatchTable withReceiver(ReceiverReference receiver, Subscriber[] subscribers) {
+        Map<Class<?>, Subscriber[]> byEvent = new HashMap<>(subscribersByEvent);
+        Map<Class<?>, Map<String, Subscriber[]>> keyed = new HashMap<>(keyedByEvent);
+        for (Subscriber subscriber : subscribers) {
+            Class<?> eventType = subscriber.getEvent();
+            if (subscriber.getKey() != null) {
+                Map<String, Subscriber[]> byKey = keyed.get(eventType);
+                byKey = byKey != null ? new HashMap<>(byKey) : new HashMap<String, Subscriber[]>();
+                byKey.put(subscriber.getKey(), insert(byKey.get(subscriber.getKey()), subscriber));
+                keyed.put(eventType, byKey);
+            }
+            else {
+                byEvent.put(eventType, insert(byEvent.get(eventType), subscriber));
+            }
+        }
+
+        Map<ReceiverReference, Subscriber[]> byReceiver = new HashMap<>(subscribersByReceiver);
+        byReceiver.put(receiver, subscribers);
+
+        return new DispatchTable(byEvent, keyed, byReceiver, eventInheritance);
+    }
+
+    /**
+     * @return a copy of this table without any of the receiver's subscribers
+     */
+    DispatchTable withoutReceiver(ReceiverReference receiver) {
+        Subscriber[] removed = subscribersByReceiver.get(receiver);
+        if (removed == null) {
+            return this;
+        }
+
+        Map<Class<?>, Subscriber[]> byEvent = new HashMap<>(subscribersByEvent);
+        Map<Class<?>, Map<String, Subscriber[]>> keyed = new HashMap<>(keyedByEvent);
+        for (Subscriber subscriber : removed) {
+            Class<?> eventType = subscriber.getEvent();
+            if (subscriber.getKey() != null) {
+                Map<String, Subscriber[]> byKey = keyed.get(eventType);
+                if (byKey == null || !byKey.containsKey(subscriber.getKey())) {
+                    continue;
+                }
+                byKey = new HashMap<>(byKey);
+                remove(byKey, subscriber.getKey(), subscriber.getReceiverReference());
+                if (byKey.isEmpty()) {
+                    keyed.remove(eventType);
+                }
+                else {
+                    keyed.put(eventType, byKey);
+                }
+            }
+            else {
+                remove(byEvent, eventType, subscriber.getReceiverReference());
+            }
+        }
+
+        Map<ReceiverReference, Subscriber[]> byReceiver = new HashMap<>(subscribersByReceiver);
+        byReceiver.remove(receiver);
+
+        return new DispatchTable(byEvent, keyed, byReceiver, eventInheritance);
+    }
+
+    /**
+     * Drops the receiver's subscribers from the array under key, and the key once it's empty.
+     */
+    private static <K> void remove(Map<K, Subscriber[]> subscribers, K key, ReceiverReference receiver) {
+        Subscriber[] current = subscribers.get(key);
+        if (current == null) {
+            // already dropped along with an earlier method for the same key
+            return;
+        }
+        Subscriber[] remaining = without(current, receiver);
+        if (remaining.length == 0) {
+            subscribers.remove(key);
+        }
+        else {
+            subscribers.put(key, remaining);
+        }
+    }
+
+    private Subscriber[] resolveInherited(Class<?> eventClass) {
+        Subscriber[] merged = NO_SUBSCRIBERS;
+        boolean sorted = true;
+        for (Class<?> type : EventTypes.of(eventClass)) {
+            Subscriber[] subscribers = subscribersByEvent.get(type);
+            if (subscribers == null) {
+                continue;
+            }
+            if (merged.length == 0) {
+                merged = subscribers;
+            }
+            else {
+                Subscriber[] grown = Arrays.copyOf(merged, merged.length + subscribers.length);
+                System.arraycopy(subscribers, 0, grown, merged.length, subscribers.length);
+                merged = grown;
+                sorted = false;
+            }
+        }
+        if (!sorted) {
+            // stable, so equal priorities stay nearest type first
+            Arrays.sort(merged, BY_PRIORITY);
+        }
+        // only event classes that reach someone are kept
+        if (merged.length > 0) {
+            inheritedByEvent.put(eventClass, merged);
+        }
+        return merged;
+    }
+
+    private Subscriber[] resolveKeyed(Class<?> eventClass, String key) {
+        Subscriber[] unkeyed = getSubscribers(eventClass);
+        Subscriber[] merged = unkeyed;
+        int sources = unkeyed.length > 0 ? 1 : 0;
+        Class<?>[] types = eventInheritance ? EventTypes.of(eventClass) : null;
+        int typeCount = types != null ? types.length : 1;
+        for (int i = 0; i < typeCount; i++) {
+            Map<String, Subscriber[]> byKey = keyedByEvent.get(types != null ? types[i] : eventClass);
+            Subscriber[] subscribers = byKey != null ? byKey.get(key) : null;
+            if (subscribers == null) {
+                continue;
+            }
+            if (merged.length == 0) {
+                merged = subscribers;
+            }
+            else {
+                Subscriber[] grown = Arrays.copyOf(merged, merged.length + subscribers.length);
+                System.arraycopy(subscribers, 0, grown, merged.length, subscribers.length);
+                merged = grown;
+            }
+            sources++;
+        }
+        // nobody subscribed to the key, keys that reach no one aren't kept
+        if (merged == unkeyed) {
+            return unkeyed;
+        }
+        if (sources > 1) {
+            // stable, so equal priorities stay unkeyed first, then nearest type first
+            Arrays.sort(merged, BY_PRIORITY);
+        }
+        ConcurrentHashMap<String, Subscriber[]> byKey = keyedByEventKey.get(eventClass);
+        if (byKey == null) {
+            byKey = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, Subscriber[]> existing = keyedByEventKey.putIfAbsent(eventClass, byKey);
+            if (existing != null) {
+                byKey = existing;
+            }
+        }
+        byKey.put(key, merged);
+        return merged;
+    }
+
+    /**
+     * @return a copy of subscribers with subscriber after every one of the same or higher
+     * priority, or just subscriber if subscribers is null
+     */
+    private static Subscriber[] insert(Subscriber[] subscribers, Subscriber subscriber) {
+        if (subscribers == null) {
+            return new Subscriber[] {subscriber};
+        }
+        int position = subscribers.length;
+        while (position > 0 && subscribers[position - 1].getPriority() < subscriber.getPriority()) {
+            position--;
+        }
+        Subscriber[] inserted = new Subscriber[subscribers.length + 1];
+        System.arraycopy(subscribers, 0, inserted, 0, position);
+        inserted[position] = subscriber;
+        System.arraycopy(subscribers, position, inserted, position + 1, subscribers.length - position);
+        return inserted;
+    }
+
+    /**
+     * @param receiver the registered reference itself, its receiver may already be collected
+     */
+    private static Subscriber[] without(Subscriber[] subscribers, ReceiverReference receiver) {
+        Subscriber[] remaining = new Subscriber[subscribers.length];
+        int count = 0;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.getReceiverReference() != receiver) {
+                remaining[count++] = subscriber;
+            }
+        }
+        return Arrays.copyOf(remaining, count);
+    }
+}
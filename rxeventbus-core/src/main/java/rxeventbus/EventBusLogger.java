@@ -0,0 +1,66 @@
+package rxeventbus;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Where RxEventBus reports registrations and problems. The bus checks isLoggable() before
+ * building a message, so a disabled level costs one call and allocates nothing.
+ *
+ * Set one with RxEventBus.setLogger() or the builder, e.g. to forward to android.util.Log.
+ */
+
+public interface EventBusLogger {
+
+    /**
+     * Discards everything.
+     */
+    EventBusLogger NONE = new EventBusLogger() {
+        @Override
+        public boolean isLoggable(Level level) {
+            return false;
+        }
+
+        @Override
+        public void log(Level level, String message) {
+        }
+
+        @Override
+        public void log(Level level, String message, Throwable throwable) {
+        }
+    };
+
+    boolean isLoggable(Level level);
+
+    void log(Level level, String message);
+
+    void log(Level level, String message, Throwable throwable);
+
+    /**
+     * Forwards to a java.util.logging Logger. The default, on the "rxeventbus" logger, logs
+     * INFO and above.
+     */
+    final class JavaLogger implements EventBusLogger {
+
+        private final Logger logger;
+
+        public JavaLogger(Logger logger) {
+            this.logger = logger;
+        }
+
+        @Override
+        public boolean isLoggable(Level level) {
+            return logger.isLoggable(level);
+        }
+
+        @Override
+        public void log(Level level, String message) {
+            logger.log(level, message);
+        }
+
+        @Override
+        public void log(Level level, String message, Throwable throwable) {
+            logger.log(level, message, throwable);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package rxeventbus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+
+/**
+ * Collects {@link KeyedEvent}s for a time window and hands on only the latest event per
+ * event class and key, in the order the keys first showed up. The first event after a flush
+ * opens the next window.
+ */
+
+final class EventCoalescer {
+
+    /**
+     * Receives the coalesced events at the end of each window.
+     */
+    interface Sink {
+        void publishAll(Collection<?> events);
+    }
+
+    private static final class CoalescingKey {
+        final Class<?> eventType;
+        final String key;
+
+        CoalescingKey(Class<?> eventType, String key) {
+            this.eventType = eventType;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object another) {
+            if (another instanceof CoalescingKey) {
+                CoalescingKey other = (CoalescingKey) another;
+                return eventType == other.eventType && (key == null ? other.key == null : key.equals(other.key));
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * eventType.hashCode() + (key != null ? key.hashCode() : 0);
+        }
+    }
+
+    private final Sink sink;
+    private final Scheduler scheduler;
+    private final long windowNanos;
+
+    // Latest event by class and key, guarded by this
+    private Map<CoalescingKey, KeyedEvent> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            Collection<KeyedEvent> events;
+            synchronized (EventCoalescer.this) {
+                events = new ArrayList<>(pending.values());
+                pending = new LinkedHashMap<>();
+                flushScheduled = false;
+            }
+            sink.publishAll(events);
+        }
+    };
+
+    EventCoalescer(Sink sink, Scheduler scheduler, long window, TimeUnit unit) {
+        this.sink = sink;
+        this.scheduler = scheduler;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    void add(KeyedEvent event) {
+        synchronized (this) {
+            pending.put(new CoalescingKey(event.getClass(), event.getKey()), event);
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        scheduler.scheduleDirect(flush, windowNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,25 @@
+package rxeventbus;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Turns events of one type into bytes and back for a {@link MappedEventBridge}. Both ends
+ * work on buffers the bridge reuses, so a codec that puts and gets primitives allocates
+ * nothing but the decoded event.
+ */
+
+public interface EventCodec<T> {
+
+    /**
+     * Writes the event at the buffer's position.
+     *
+     * @throws java.nio.BufferOverflowException if it doesn't fit, the bridge reports the
+     * event as too large
+     */
+    void encode(T event, ByteBuffer buffer);
+
+    /**
+     * @param buffer positioned at what {@link #encode} wrote, limited to its end
+     */
+    T decode(ByteBuffer buffer);
+}
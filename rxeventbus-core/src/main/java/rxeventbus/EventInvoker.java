@@ -0,0 +1,14 @@
+package rxeventbus;
+
+/**
+ * Calls a single @Subscribe method on a receiver.
+ *
+ * Implementations are either generated at build time by the rxeventbus-compiler
+ * annotation processor (a plain typed call) or created at runtime from a reflected
+ * {@link java.lang.reflect.Method} when no generated index covers the receiver.
+ */
+
+public interface EventInvoker {
+
+    void invoke(Object receiver, Object event) throws Throwable;
+}
@@ -0,0 +1,471 @@
+package rxeventbus;
+
+import android.support.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only record of the events of selected types posted to a bus, for rebuilding state
+ * after a crash or reproducing a bug, and replay of a time range of it into a bus.
+ *
+ * <b>
+ * EventJournal journal = EventJournal.builder(dir).codec(1, Order.class, new OrderCodec()).build();
+ * journal.record(bus);
+ * ...
+ * journal.replay(bus, from, to, false);
+ * </b>
+ *
+ * Publishers only hand events to a ring buffer; a writer thread timestamps them, encodes
+ * them with their {@link EventCodec} and appends them to memory-mapped segment files of a
+ * fixed size in the directory, so journaling adds no I/O to publish(). Segments are flushed
+ * to storage every flush interval and when full. Anything not yet flushed is in the page
+ * cache and survives a crash of the app, but not of the device.
+ *
+ * Each segment starts with a magic number, then records of a size, type id, timestamp and
+ * payload; a size of 0 ends the segment. The size is written last, so a record cut short
+ * by a crash is never read.
+ */
+
+public final class EventJournal {
+
+    private static final int MAGIC = 0x524A524E;
+    private static final int SEGMENT_HEADER = 8;
+    // size, type, timestamp
+    private static final int RECORD_HEADER = 16;
+    private static final String SUFFIX = ".journal";
+    // handed to the writer through the ring to have it flush
+    private static final Object FLUSH = new Object();
+
+    private final File directory;
+    private final List<TypedCodec> codecs;
+    private final TypedCodec[] codecsByType;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    private final int bufferSize;
+
+    // while recording
+    private RxEventBus bus;
+    private RingDispatcher ring;
+    private Writer writer;
+    private TimerWheel.Timeout flush;
+    private volatile boolean recording;
+    // still writing out after close(), no new recording until it is done
+    private boolean closing;
+
+    private EventJournal(Builder builder) {
+        directory = builder.directory;
+        codecs = new ArrayList<>(builder.codecs);
+        codecsByType = TypedCodec.byType(codecs);
+        segmentSize = builder.segmentSize;
+        flushIntervalNanos = builder.flushIntervalNanos;
+        bufferSize = builder.bufferSize;
+    }
+
+    @NonNull
+    public static Builder builder(@NonNull File directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Journals every event of a registered type posted to the bus from now on, in new
+     * segments after any already in the directory.
+     *
+     * @throws IllegalStateException if the journal is already recording
+     */
+    public synchronized void record(@NonNull RxEventBus bus) throws IOException {
+        if (recording || closing) {
+            throw new IllegalStateException(recording ? "Already recording" : "Still closing");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File[] segments = segments();
+        long next = segments.length > 0 ? segmentIndex(segments[segments.length - 1]) + 1 : 0;
+
+        writer = new Writer(next);
+        ring = new RingDispatcher(bufferSize, 1, WaitStrategy.PARK, 64, writer);
+        SubscriberMethod[] methods = new SubscriberMethod[codecs.size()];
+        for (int i = 0; i < methods.length; i++) {
+            methods[i] = new SubscriberMethod("record", codecs.get(i).eventType, new Recorder(),
+                    ThreadMode.POSTING, false, Backpressure.NONE, 0, null, null);
+        }
+        recording = true;
+        this.bus = bus;
+        bus.register(this, methods, null);
+        scheduleFlush();
+    }
+
+    /**
+     * Stops recording, once everything published so far is written and flushed.
+     */
+    public void close() throws InterruptedException {
+        RxEventBus bus;
+        RingDispatcher ring;
+        Writer writer;
+        // not held while waiting, the flush timeout takes the lock on the shared timer thread
+        synchronized (this) {
+            if (!recording) {
+                return;
+            }
+            recording = false;
+            closing = true;
+            flush.cancel();
+            bus = this.bus;
+            ring = this.ring;
+            writer = this.writer;
+            this.bus = null;
+        }
+        try {
+            bus.unregister(this);
+            ring.shutdown();
+            ring.awaitTermination(10, TimeUnit.SECONDS);
+            writer.flush();
+        }
+        finally {
+            synchronized (this) {
+                closing = false;
+            }
+        }
+    }
+
+    /**
+     * Posts the journaled events with timestamps from fromMillis up to toMillis to the bus,
+     * in the order they were recorded, on the calling thread. Replaying into the bus being
+     * recorded journals the events again.
+     *
+     * @param fromMillis inclusive, in System.currentTimeMillis() time
+     * @param toMillis exclusive
+     * @param originalTiming whether to wait between events as long as they were apart when
+     *                       recorded, rather than posting them as fast as possible
+     * @return events posted
+     */
+    public int replay(@NonNull RxEventBus bus, long fromMillis, long toMillis, boolean originalTiming)
+            throws IOException, InterruptedException {
+
+        File[] segments = segments();
+        int count = 0;
+        long firstTimestamp = -1;
+        long start = 0;
+
+        for (int i = 0; i < segments.length; i++) {
+            // timestamps only grow, so nothing in this segment is recent enough
+            if (i + 1 < segments.length && firstTimestamp(segments[i + 1]) < fromMillis) {
+                continue;
+            }
+            ByteBuffer segment = map(segments[i], FileChannel.MapMode.READ_ONLY, 0);
+            if (segment.getInt(0) != MAGIC) {
+                throw new IOException(segments[i] + " is not a journal segment");
+            }
+            ByteBuffer payload = segment.duplicate();
+
+            int position = SEGMENT_HEADER;
+            while (position + RECORD_HEADER <= segment.capacity()) {
+                int size = segment.getInt(position);
+                MappedRing.fence();
+                if (size == 0) {
+                    break;
+                }
+                int type = segment.getInt(position + 4);
+                long timestamp = segment.getLong(position + 8);
+                if (timestamp >= toMillis) {
+                    return count;
+                }
+                TypedCodec codec = TypedCodec.get(codecsByType, type);
+                if (timestamp >= fromMillis && codec != null) {
+                    if (originalTiming) {
+                        if (firstTimestamp < 0) {
+                            firstTimestamp = timestamp;
+                            start = System.nanoTime();
+                        }
+                        long delay = start + TimeUnit.MILLISECONDS.toNanos(timestamp - firstTimestamp) - System.nanoTime();
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    }
+                    payload.limit(position + size);
+                    payload.position(position + RECORD_HEADER);
+                    bus.post(codec.codec.decode(payload));
+                    count++;
+                }
+                position += size;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Has the writer thread flush every interval. The timer thread is shared and must not
+     * wait for the disk, so it only hands the writer a FLUSH, or while the ring is full
+     * leaves it a flag to find after its next event.
+     */
+    private void scheduleFlush() {
+        flush = TimerWheel.shared().schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (EventJournal.this) {
+                    if (!recording) {
+                        return;
+                    }
+                    if (!ring.tryPublish(FLUSH)) {
+                        writer.flushRequested = true;
+                    }
+                    scheduleFlush();
+                }
+            }
+        }, flushIntervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Hands a published event to the writer thread.
+     */
+    private final class Recorder implements EventInvoker {
+        @Override
+        public void invoke(Object receiver, Object event) {
+            if (!recording) {
+                return;
+            }
+            try {
+                ring.publish(event);
+            }
+            catch (IllegalStateException e) {
+                // closed while this event was being published
+            }
+        }
+    }
+
+    /**
+     * Appends events to the current segment on the ring's consumer thread, starting the next
+     * segment when one is full.
+     */
+    private final class Writer implements RingDispatcher.Handler {
+
+        private long segmentIndex;
+        private MappedByteBuffer segment;
+        private int position;
+        private long lastTimestamp;
+        // the segment with writes not yet flushed, taken by whoever flushes it
+        private final AtomicReference<MappedByteBuffer> dirty = new AtomicReference<>();
+        // set by the timer when FLUSH found the ring full
+        volatile boolean flushRequested;
+
+        Writer(long segmentIndex) {
+            this.segmentIndex = segmentIndex;
+        }
+
+        @Override
+        public void onEvent(Object event) {
+            if (event == FLUSH || flushRequested) {
+                flushRequested = false;
+                flush();
+                if (event == FLUSH) {
+                    return;
+                }
+            }
+            TypedCodec codec = codecFor(event.getClass());
+            // never backwards, so replay can stop at the first record past its range
+            long timestamp = Math.max(lastTimestamp, System.currentTimeMillis());
+            lastTimestamp = timestamp;
+            try {
+                if (segment == null || !append(codec, event, timestamp)) {
+                    nextSegment();
+                    if (!append(codec, event, timestamp)) {
+                        throw new IllegalArgumentException(event + " doesn't fit a journal segment of "
+                                + segmentSize + " bytes");
+                    }
+                }
+                dirty.set(segment);
+            }
+            catch (IOException | RuntimeException e) {
+                // a failed event must not stop the journal
+                Thread currentThread = Thread.currentThread();
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, e);
+            }
+        }
+
+        void flush() {
+            MappedByteBuffer written = dirty.getAndSet(null);
+            if (written != null) {
+                written.force();
+            }
+        }
+
+        /**
+         * @return false if the record doesn't fit the rest of the segment
+         */
+        private boolean append(TypedCodec codec, Object event, long timestamp) {
+            if (position + RECORD_HEADER > segmentSize) {
+                return false;
+            }
+            segment.limit(segmentSize);
+            segment.position(position + RECORD_HEADER);
+            try {
+                codec.codec.encode(event, segment);
+            }
+            catch (BufferOverflowException e) {
+                // the partial payload is overwritten by the next record or left after the end
+                return false;
+            }
+            int size = segment.position() - position;
+            segment.putInt(position + 4, codec.type);
+            segment.putLong(position + 8, timestamp);
+            MappedRing.fence();
+            segment.putInt(position, size);
+            position += size;
+            return true;
+        }
+
+        private void nextSegment() throws IOException {
+            if (segment != null) {
+                segment.force();
+            }
+            File file = new File(directory, String.format(Locale.US, "%020d", segmentIndex++) + SUFFIX);
+            segment = map(file, FileChannel.MapMode.READ_WRITE, segmentSize);
+            segment.putInt(0, MAGIC);
+            position = SEGMENT_HEADER;
+        }
+
+        private TypedCodec codecFor(Class<?> eventClass) {
+            // with event inheritance the recorder gets subclasses of the registered types too
+            for (Class<?> type : EventTypes.of(eventClass)) {
+                for (TypedCodec codec : codecsByType) {
+                    if (codec != null && codec.eventType == type) {
+                        return codec;
+                    }
+                }
+            }
+            throw new IllegalArgumentException("No codec for " + eventClass);
+        }
+    }
+
+    /**
+     * @return the segment files in the order they were written
+     */
+    private File[] segments() {
+        File[] segments = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().endsWith(SUFFIX);
+            }
+        });
+        if (segments == null) {
+            return new File[0];
+        }
+        // zero padded, so by name is by index
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    private static long segmentIndex(File segment) {
+        String name = segment.getName();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * @return the timestamp of the segment's first record, Long.MAX_VALUE if it has none
+     */
+    private static long firstTimestamp(File segment) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(segment, "r");
+        try {
+            if (raf.length() < SEGMENT_HEADER + RECORD_HEADER) {
+                return Long.MAX_VALUE;
+            }
+            raf.seek(SEGMENT_HEADER);
+            if (raf.readInt() == 0) {
+                return Long.MAX_VALUE;
+            }
+            raf.seek(SEGMENT_HEADER + 8);
+            return raf.readLong();
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * @param size the file's new size, or 0 to map it as it is
+     */
+    private static MappedByteBuffer map(File file, FileChannel.MapMode mode, int size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw");
+        try {
+            if (size > 0) {
+                raf.setLength(size);
+            }
+            // the mapping outlives the channel
+            return raf.getChannel().map(mode, 0, raf.length());
+        }
+        finally {
+            raf.close();
+        }
+    }
+
+    public static final class Builder {
+
+        private final File directory;
+        private final List<TypedCodec> codecs = new ArrayList<>();
+        private int segmentSize = 16 * 1024 * 1024;
+        private long flushIntervalNanos = TimeUnit.SECONDS.toNanos(1);
+        private int bufferSize = 8192;
+
+        private Builder(File directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Journals events of this type, stored under typeId. Replay needs the same ids.
+         *
+         * @param typeId small and non-negative
+         */
+        @NonNull
+        public <T> Builder codec(int typeId, @NonNull Class<T> eventType, @NonNull EventCodec<? super T> codec) {
+            TypedCodec.add(codecs, typeId, eventType, codec);
+            return this;
+        }
+
+        /**
+         * @param bytes size of each segment file, 16 MB by default
+         */
+        @NonNull
+        public Builder segmentSize(int bytes) {
+            if (bytes < SEGMENT_HEADER + RECORD_HEADER) {
+                throw new IllegalArgumentException("segmentSize too small: " + bytes);
+            }
+            segmentSize = bytes;
+            return this;
+        }
+
+        /**
+         * How often written events are flushed to storage, every second by default.
+         */
+        @NonNull
+        public Builder flushInterval(long interval, @NonNull TimeUnit unit) {
+            flushIntervalNanos = unit.toNanos(interval);
+            return this;
+        }
+
+        /**
+         * @param events published events waiting for the writer before publishers have to
+         *               wait, a power of 2, 8192 by default
+         */
+        @NonNull
+        public Builder bufferSize(int events) {
+            bufferSize = events;
+            return this;
+        }
+
+        @NonNull
+        public EventJournal build() {
+            return new EventJournal(this);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package rxeventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flattened type hierarchy of event classes: the class itself, its superclasses and every
+ * interface they implement. Computed once per event class and cached, so polymorphic
+ * dispatch does no reflection per publish.
+ */
+
+final class EventTypes {
+
+    private static final ConcurrentHashMap<Class<?>, Class<?>[]> typesByEvent = new ConcurrentHashMap<>();
+
+    private EventTypes() {
+    }
+
+    /**
+     * @return eventClass first, then its superclasses nearest first, then its interfaces
+     */
+    static Class<?>[] of(Class<?> eventClass) {
+        Class<?>[] types = typesByEvent.get(eventClass);
+        if (types == null) {
+            types = flatten(eventClass);
+            Class<?>[] existing = typesByEvent.putIfAbsent(eventClass, types);
+            if (existing != null) {
+                types = existing;
+            }
+        }
+        return types;
+    }
+
+    private static Class<?>[] flatten(Class<?> eventClass) {
+        List<Class<?>> classes = new ArrayList<>();
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (Class<?> c = eventClass; c != null; c = c.getSuperclass()) {
+            classes.add(c);
+            addInterfaces(interfaces, c.getInterfaces());
+        }
+        classes.addAll(interfaces);
+        return classes.toArray(new Class<?>[classes.size()]);
+    }
+
+    private static void addInterfaces(List<Class<?>> types, Class<?>[] interfaces) {
+        for (Class<?> type : interfaces) {
+            if (!types.contains(type)) {
+                types.add(type);
+                addInterfaces(types, type.getInterfaces());
+            }
+        }
+    }
+}
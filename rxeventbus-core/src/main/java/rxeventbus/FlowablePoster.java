@@ -0,0 +1,172 @@
+package rxeventbus;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.functions.Action;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.subscribers.DisposableSubscriber;
+
+/**
+ * Backpressured delivery to one subscriber: publishers feed a {@link PublishProcessor} and a
+ * bounded buffer applies the {@link OverflowStrategy}. The buffer hands one event at a time to
+ * the executor, e.g. the bus's shared BACKGROUND poster, and the next once the subscriber has
+ * handled it, so events are delivered in order and only the buffer holds the backlog.
+ */
+
+final class FlowablePoster {
+
+    /**
+     * Told about every event the buffer had no room for.
+     */
+    interface DropListener {
+        void onDropped(Subscriber subscriber);
+    }
+
+    private final Subscriber subscriber;
+    private final Backpressure backpressure;
+    private final DropListener dropListener;
+    private final Executor executor;
+    private final FlowableProcessor<Object> processor = PublishProcessor.create().toSerialized();
+    private final Drain drain = new Drain();
+
+    // DROP, ERROR and BLOCK bound the buffer themselves, counting events not yet handled
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Semaphore permits;
+    private volatile boolean shutdown;
+
+    /**
+     * @param executor runs each delivery, one at a time
+     */
+    FlowablePoster(Subscriber subscriber, Executor executor, Backpressure backpressure, DropListener dropListener) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.backpressure = backpressure;
+        this.dropListener = dropListener;
+        this.permits = backpressure.overflow == OverflowStrategy.BLOCK ? new Semaphore(backpressure.bufferSize) : null;
+
+        Flowable<Object> buffered;
+        switch (backpressure.overflow) {
+            case LATEST:
+                buffered = processor.onBackpressureBuffer(backpressure.bufferSize, countDrop(),
+                        BackpressureOverflowStrategy.DROP_OLDEST);
+                break;
+            default:
+                buffered = processor.onBackpressureBuffer();
+                break;
+        }
+        buffered.subscribe(drain);
+    }
+
+    /**
+     * @throws MissingBackpressureException if the buffer is full and the strategy is ERROR
+     */
+    void enqueue(Object event) {
+        switch (backpressure.overflow) {
+            case DROP:
+                // Rx's DROP_LATEST would evict the newest buffered event instead of this one
+                if (pending.incrementAndGet() > backpressure.bufferSize) {
+                    pending.decrementAndGet();
+                    dropListener.onDropped(subscriber);
+                    return;
+                }
+                break;
+            case ERROR:
+                if (pending.incrementAndGet() > backpressure.bufferSize) {
+                    pending.decrementAndGet();
+                    dropListener.onDropped(subscriber);
+                    throw new MissingBackpressureException("Buffer of " + backpressure.bufferSize + " full for "
+                            + subscriber.getId());
+                }
+                break;
+            case BLOCK:
+                try {
+                    permits.acquire();
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    dropListener.onDropped(subscriber);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        if (shutdown) {
+            // nothing drains anymore, don't let the next BLOCK publisher wait forever
+            release();
+            return;
+        }
+        processor.onNext(event);
+    }
+
+    void shutdown() {
+        shutdown = true;
+        drain.dispose();
+        if (permits != null) {
+            // wake publishers blocked on a subscriber that is gone
+            permits.release(backpressure.bufferSize);
+        }
+    }
+
+    private void release() {
+        if (permits != null) {
+            permits.release();
+        }
+        else if (backpressure.overflow != OverflowStrategy.LATEST) {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Requests one event from the buffer, and the next once the executor has delivered it.
+     */
+    private final class Drain extends DisposableSubscriber<Object> {
+
+        @Override
+        protected void onStart() {
+            request(1);
+        }
+
+        @Override
+        public void onNext(final Object event) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (subscriber.isActive()) {
+                            subscriber.invoke(event);
+                        }
+                    }
+                    finally {
+                        release();
+                        request(1);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            // the processor is only ever fed events
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private Action countDrop() {
+        return new Action() {
+            @Override
+            public void run() {
+                dropListener.onDropped(subscriber);
+            }
+        };
+    }
+}
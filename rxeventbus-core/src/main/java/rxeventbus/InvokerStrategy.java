@@ -0,0 +1,93 @@
+package rxeventbus;
+
+import java.lang.reflect.Method;
+
+/**
+ * How a {@link Subscriber} calls a @Subscribe method found with reflection. Methods covered
+ * by a generated {@link rxeventbus.index.SubscriberIndex} are always called directly.
+ *
+ * By default the fastest strategy the runtime supports is used; a method the chosen
+ * strategy can't handle (e.g. a LAMBDA target in a non public class) falls back to the
+ * next one.
+ */
+
+public enum InvokerStrategy {
+
+    /**
+     * A LambdaMetafactory generated class that calls the method directly, as fast as a
+     * virtual call once inlined. JVM only.
+     */
+    LAMBDA {
+        @Override
+        EventInvoker create(Method method) throws Throwable {
+            return LambdaInvoker.create(method);
+        }
+    },
+
+    /**
+     * An exact MethodHandle call: no argument array and no access checks per event.
+     * JVM and Android 8.0 (API 26) and up.
+     */
+    METHOD_HANDLE {
+        @Override
+        EventInvoker create(Method method) throws Throwable {
+            return MethodHandleInvoker.create(method);
+        }
+    },
+
+    /**
+     * {@link Method#invoke(Object, Object...)}, supported everywhere.
+     */
+    REFLECTIVE {
+        @Override
+        EventInvoker create(Method method) {
+            return new ReflectiveInvoker(method);
+        }
+    };
+
+    abstract EventInvoker create(Method method) throws Throwable;
+
+    /**
+     * Creates an invoker with this strategy, or with the next one down when this strategy
+     * can't call the method.
+     */
+    EventInvoker createOrFallback(Method method) {
+        InvokerStrategy[] strategies = values();
+        for (int i = ordinal(); i < strategies.length; i++) {
+            try {
+                return strategies[i].create(method);
+            }
+            catch (Throwable t) {
+                // not supported for this method, try the next strategy
+            }
+        }
+        return new ReflectiveInvoker(method);
+    }
+
+    /**
+     * @return the fastest strategy that works on this runtime, probed once
+     */
+    static InvokerStrategy fastestSupported() {
+        return Fastest.STRATEGY;
+    }
+
+    private static final class Fastest {
+
+        static final InvokerStrategy STRATEGY = probe();
+
+        private static InvokerStrategy probe() {
+            for (InvokerStrategy strategy : values()) {
+                try {
+                    Method equals = Object.class.getMethod("equals", Object.class);
+                    Object probe = new Object();
+                    strategy.create(equals).invoke(probe, probe);
+                    return strategy;
+                }
+                catch (Throwable t) {
+                    // java.lang.invoke missing or unusable, try the next strategy
+                }
+            }
+            return REFLECTIVE;
+        }
+    }
+}
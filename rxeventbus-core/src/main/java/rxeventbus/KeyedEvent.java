@@ -0,0 +1,16 @@
+package rxeventbus;
+
+/**
+ * An event identifying the entity it's about, e.g. a download progress event keyed by the
+ * download id. Events of the same class and key published through
+ * {@link RxEventBus#publishCoalesced(KeyedEvent)} within the coalescing window collapse to
+ * the latest one.
+ *
+ * Subscribers keyed with {@code @Subscribe(key = ...)} or
+ * {@link RxEventBus#subscribe(Object, String)} receive only the events with their key.
+ */
+
+public interface KeyedEvent {
+
+    String getKey();
+}
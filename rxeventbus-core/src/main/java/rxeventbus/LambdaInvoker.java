@@ -0,0 +1,59 @@
+package rxeventbus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Spins an {@link EventInvoker} class with LambdaMetafactory whose invoke() calls the
+ * @Subscribe method directly, the same code a method reference would compile to.
+ * Only loaded when {@link InvokerStrategy#LAMBDA} is used.
+ *
+ * LambdaMetafactory is looked up by name because it isn't part of the Android SDK.
+ */
+
+final class LambdaInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private LambdaInvoker() {
+    }
+
+    static EventInvoker create(Method method) throws Throwable {
+        Class<?> receiverType = method.getDeclaringClass();
+        Class<?> eventType = method.getParameterTypes()[0];
+
+        // the spun class links against the receiver and event types from this package
+        if (Modifier.isStatic(method.getModifiers()) || !isLinkable(receiverType) || !isLinkable(eventType)) {
+            throw new IllegalArgumentException(method + " can't be called from a generated invoker");
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle target = lookup.unreflect(method);
+
+        Method metafactory = Class.forName("java.lang.invoke.LambdaMetafactory").getMethod("metafactory",
+                MethodHandles.Lookup.class, String.class, MethodType.class, MethodType.class, MethodHandle.class,
+                MethodType.class);
+        Object callSite = metafactory.invoke(null, lookup, "invoke", MethodType.methodType(EventInvoker.class),
+                INVOKER_TYPE, target, MethodType.methodType(void.class, receiverType, eventType));
+        MethodHandle factory = (MethodHandle) callSite.getClass().getMethod("getTarget").invoke(callSite);
+
+        return (EventInvoker) factory.invoke();
+    }
+
+    private static boolean isLinkable(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(type.getName(), false, LambdaInvoker.class.getClassLoader()) == type;
+        }
+        catch (ClassNotFoundException cnfe) {
+            return false;
+        }
+    }
+}
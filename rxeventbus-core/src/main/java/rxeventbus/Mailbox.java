@@ -0,0 +1,119 @@
+package rxeventbus;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded, ordered queue of events for one POSTING subscriber on a bus with parallel
+ * fan-out, see {@link RxEventBus.Builder#parallelFanOut}. Posts queue up while a drain is
+ * scheduled or running on the fan-out pool, so the subscriber handles events one at a time
+ * in the order they were queued, concurrently with other subscribers. A publisher finding
+ * the mailbox full waits for room, as a managed blocker so a pool thread publishing from a
+ * handler doesn't starve the pool.
+ */
+
+final class Mailbox implements Runnable {
+
+    // events handled per run before the drain yields its pool thread to other mailboxes
+    private static final int BATCH = 64;
+
+    private final Subscriber subscriber;
+    private final Executor executor;
+    private final int capacity;
+    private final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+    // events queued and not yet handled, the drain is scheduled when this goes up from 0
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Semaphore permits;
+    private volatile boolean shutdown;
+
+    Mailbox(Subscriber subscriber, Executor executor, int capacity) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+    }
+
+    /**
+     * @return whether events are queued or being handled, later ones must queue behind them
+     */
+    boolean isBusy() {
+        return wip.get() != 0;
+    }
+
+    void enqueue(Object event) {
+        if (!permits.tryAcquire()) {
+            try {
+                ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                    @Override
+                    public boolean block() throws InterruptedException {
+                        permits.acquire();
+                        return true;
+                    }
+
+                    @Override
+                    public boolean isReleasable() {
+                        return permits.tryAcquire();
+                    }
+                });
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (shutdown) {
+            // nothing drains anymore, don't let the next publisher wait forever
+            permits.release();
+            return;
+        }
+        // counted before it is offered, so the drain never finishes with it still to come
+        boolean idle = wip.getAndIncrement() == 0;
+        queue.offer(event);
+        if (idle) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        int handled = 0;
+        for (;;) {
+            Object event;
+            while ((event = queue.poll()) != null) {
+                boolean delivered = false;
+                try {
+                    if (subscriber.isActive()) {
+                        subscriber.invoke(event);
+                    }
+                    delivered = true;
+                }
+                finally {
+                    permits.release();
+                    if (!delivered && wip.decrementAndGet() != 0) {
+                        // an Error is unwinding the drain, the rest goes to a new task
+                        executor.execute(this);
+                    }
+                }
+                if (wip.decrementAndGet() == 0) {
+                    return;
+                }
+                if (++handled == BATCH) {
+                    // still busy, continue in a fresh task behind the other mailboxes
+                    executor.execute(this);
+                    return;
+                }
+            }
+            // counted but not offered yet, the publisher is between the two
+            Thread.yield();
+        }
+    }
+
+    void shutdown() {
+        shutdown = true;
+        // wake publishers blocked on a subscriber that is gone
+        permits.release(capacity);
+    }
+}
@@ -0,0 +1,26 @@
+package rxeventbus;
+
+import io.reactivex.Scheduler;
+
+/**
+ * Finds the main thread scheduler when none was set with
+ * {@link RxEventBus#setMainThreadScheduler(Scheduler)}. RxAndroid is looked up by name, so
+ * the bus also runs on a plain JVM where MAIN needs an explicit scheduler.
+ */
+
+final class MainThread {
+
+    private MainThread() {
+    }
+
+    static Scheduler defaultScheduler() {
+        try {
+            Class<?> androidSchedulers = Class.forName("io.reactivex.android.schedulers.AndroidSchedulers");
+            return (Scheduler) androidSchedulers.getMethod("mainThread").invoke(null);
+        }
+        catch (Exception | LinkageError e) {
+            throw new IllegalStateException("No main thread scheduler available, "
+                    + "call RxEventBus.setMainThreadScheduler() before subscribing ThreadMode.MAIN methods", e);
+        }
+    }
+}
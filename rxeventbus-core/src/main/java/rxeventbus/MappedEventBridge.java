@@ -0,0 +1,256 @@
+package rxeventbus;
+
+import android.support.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carries events between processes through a memory-mapped file, e.g. from a service
+ * running in its own process to the app's activities. One side exports the event types it
+ * has a {@link EventCodec} for from its bus, the other imports them into its own bus:
+ *
+ * <b>
+ * exporter = MappedEventBridge.builder(file).codec(1, Progress.class, new ProgressCodec()).exportFrom(bus);
+ * importer = MappedEventBridge.builder(file).codec(1, Progress.class, new ProgressCodec()).importInto(bus);
+ * </b>
+ *
+ * Keep the bridges in fields until you close them: the exporter is subscribed like any
+ * receiver, and a bus with weak receivers would unsubscribe it once it is collected.
+ *
+ * A file carries events one way, from one exporting bus to one importing bus, so two
+ * processes talking both ways use two files. Exported events are encoded on the publishing
+ * thread into a reused buffer and copied into the ring, which makes publishers wait while
+ * the ring is full. Imported events are decoded and posted on a daemon thread of their
+ * own, in the order they were published. Failures of the importing bus's receivers are
+ * reported by that bus as usual; what still escapes post, such as a codec failing or an
+ * Error the bus rethrows, goes to the reader thread's uncaught exception handler and the
+ * import goes on with the next event. Both sides must register the same type ids and
+ * capacity.
+ */
+
+public final class MappedEventBridge {
+
+    private final RxEventBus bus;
+    private final MappedRing ring;
+    private final Thread reader;
+    private volatile boolean running = true;
+
+    private MappedEventBridge(RxEventBus bus, MappedRing ring, Thread reader) {
+        this.bus = bus;
+        this.ring = ring;
+        this.reader = reader;
+    }
+
+    @NonNull
+    public static Builder builder(@NonNull File file) {
+        return new Builder(file);
+    }
+
+    /**
+     * Stops exporting or importing. Events still in the file are left for the next bridge
+     * on it, and a publisher still waiting for room drops its event.
+     */
+    public void close() {
+        running = false;
+        if (reader != null) {
+            ring.close();
+            reader.interrupt();
+        }
+        else {
+            // unsubscribed first, so new posts don't reach the ring once it is closed
+            bus.unregister(this);
+            ring.close();
+        }
+    }
+
+    /**
+     * Encodes an exported event into the ring, one subscriber per exported type.
+     */
+    private static final class Exporter implements EventInvoker {
+
+        private final TypedCodec codec;
+        private final MappedRing ring;
+        // shared by every exporter of the bridge, guarded by itself
+        private final ByteBuffer staging;
+
+        Exporter(TypedCodec codec, MappedRing ring, ByteBuffer staging) {
+            this.codec = codec;
+            this.ring = ring;
+            this.staging = staging;
+        }
+
+        @Override
+        public void invoke(Object receiver, Object event) {
+            synchronized (staging) {
+                staging.clear();
+                try {
+                    codec.codec.encode(event, staging);
+                }
+                catch (BufferOverflowException e) {
+                    throw new IllegalArgumentException(event + " encodes to more than " + staging.capacity()
+                            + " bytes", e);
+                }
+                staging.flip();
+                try {
+                    ring.write(codec.type, staging);
+                }
+                catch (IllegalStateException e) {
+                    // closed while this event was waiting for room
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes records on the reader thread and posts them to the importing bus.
+     */
+    private static final class Importer implements Runnable, MappedRing.Handler {
+
+        private static final int BATCH = 64;
+
+        private final RxEventBus bus;
+        private final MappedRing ring;
+        private final WaitStrategy waitStrategy;
+        // indexed by type id
+        private final TypedCodec[] codecs;
+        private MappedEventBridge bridge;
+
+        Importer(RxEventBus bus, MappedRing ring, WaitStrategy waitStrategy, TypedCodec[] codecs) {
+            this.bus = bus;
+            this.ring = ring;
+            this.waitStrategy = waitStrategy;
+            this.codecs = codecs;
+        }
+
+        @Override
+        public void run() {
+            int counter = 0;
+            while (bridge.running) {
+                if (ring.read(this, BATCH) > 0) {
+                    counter = 0;
+                }
+                else {
+                    counter = waitStrategy.idle(counter);
+                }
+            }
+        }
+
+        @Override
+        public void onRecord(int type, ByteBuffer payload) {
+            TypedCodec codec = TypedCodec.get(codecs, type);
+            if (codec == null) {
+                // exported by a newer peer, nothing here knows how to read it
+                return;
+            }
+            try {
+                bus.post(codec.codec.decode(payload));
+            }
+            catch (Throwable t) {
+                // a bad event must not stop the import, the exporter would wait on a full file
+                Thread currentThread = Thread.currentThread();
+                try {
+                    currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, t);
+                }
+                catch (Throwable ignored) {
+                    // nowhere left to report it
+                }
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final File file;
+        private final List<TypedCodec> codecs = new ArrayList<>();
+        private int capacity = 1 << 20;
+        private int maxEventSize = 64 * 1024;
+        private WaitStrategy waitStrategy = WaitStrategy.PARK;
+
+        private Builder(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Exports or imports events of exactly this type, identified in the file by typeId.
+         *
+         * @param typeId small and non-negative, the same on both sides
+         */
+        @NonNull
+        public <T> Builder codec(int typeId, @NonNull Class<T> eventType, @NonNull EventCodec<? super T> codec) {
+            TypedCodec.add(codecs, typeId, eventType, codec);
+            return this;
+        }
+
+        /**
+         * @param bytes size of the ring in the file, a power of 2, 1 MB by default
+         */
+        @NonNull
+        public Builder capacity(int bytes) {
+            capacity = bytes;
+            return this;
+        }
+
+        /**
+         * @param bytes largest encoded event, 64 KB by default
+         */
+        @NonNull
+        public Builder maxEventSize(int bytes) {
+            maxEventSize = bytes;
+            return this;
+        }
+
+        /**
+         * How the reader waits for events and publishers for room, {@link WaitStrategy#PARK}
+         * by default.
+         */
+        @NonNull
+        public Builder waitStrategy(@NonNull WaitStrategy strategy) {
+            waitStrategy = strategy;
+            return this;
+        }
+
+        /**
+         * Writes every event of a registered type posted to the bus into the file from now on,
+         * as long as the bridge is reachable on a bus with weak receivers.
+         */
+        @NonNull
+        public MappedEventBridge exportFrom(@NonNull RxEventBus bus) throws IOException {
+            MappedRing ring = new MappedRing(file, capacity, waitStrategy);
+            if (maxEventSize > ring.maxPayload()) {
+                throw new IllegalArgumentException("maxEventSize " + maxEventSize + " exceeds the capacity " + capacity);
+            }
+            ByteBuffer staging = ByteBuffer.allocateDirect(maxEventSize);
+
+            SubscriberMethod[] methods = new SubscriberMethod[codecs.size()];
+            for (int i = 0; i < methods.length; i++) {
+                TypedCodec codec = codecs.get(i);
+                methods[i] = new SubscriberMethod("export", codec.eventType, new Exporter(codec, ring, staging),
+                        ThreadMode.POSTING, false, Backpressure.NONE, 0, null, null);
+            }
+            MappedEventBridge bridge = new MappedEventBridge(bus, ring, null);
+            bus.register(bridge, methods, null);
+            return bridge;
+        }
+
+        /**
+         * Posts the events found in the file to the bus, from a thread started here.
+         */
+        @NonNull
+        public MappedEventBridge importInto(@NonNull RxEventBus bus) throws IOException {
+            MappedRing ring = new MappedRing(file, capacity, waitStrategy);
+
+            Importer importer = new Importer(bus, ring, waitStrategy, TypedCodec.byType(codecs));
+            Thread reader = new Thread(importer, "RxEventBus-bridge-" + file.getName());
+            reader.setDaemon(true);
+            MappedEventBridge bridge = new MappedEventBridge(bus, ring, reader);
+            importer.bridge = bridge;
+            reader.start();
+            return bridge;
+        }
+    }
+}
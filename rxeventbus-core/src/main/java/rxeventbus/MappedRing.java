@@ -0,0 +1,218 @@
+package rxeventbus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Single producer, single consumer ring of variable length records in a memory-mapped
+ * file, so the producer and the consumer can be different processes on one device. The
+ * file starts with a header holding the capacity and the producer and consumer positions,
+ * each on its own cache line; records follow as a length, a type and the payload, 8 byte
+ * aligned. A record that would run past the end is written at the start instead, after a
+ * padding record filling the rest. The padding is published on its own first: the
+ * consumer must read past it before a record of nearly the whole capacity has room.
+ *
+ * Positions only grow, so full and empty are told apart without a flag. Each side
+ * publishes its position after a full fence, making the bytes before it visible to the
+ * other process first.
+ */
+
+final class MappedRing {
+
+    interface Handler {
+        /**
+         * @param payload positioned at the record's payload and limited to its end
+         */
+        void onRecord(int type, ByteBuffer payload);
+    }
+
+    private static final int MAGIC = 0x52584542;
+    private static final int CAPACITY = 4;
+    private static final int PRODUCER = 64;
+    private static final int CONSUMER = 128;
+    private static final int DATA = 192;
+    // length and type
+    private static final int RECORD_HEADER = 8;
+    private static final int PADDING = -1;
+
+    // written and read for its fence only, see fence()
+    private static volatile int fence;
+
+    private final MappedByteBuffer buffer;
+    // positioned by the producer to copy payloads in
+    private final ByteBuffer writeView;
+    // positioned and limited by the consumer to hand out payloads
+    private final ByteBuffer readView;
+    private final int capacity;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+
+    // each side's own position, only published to the file
+    private long producer;
+    private long consumer;
+    private volatile boolean closed;
+
+    /**
+     * Maps the file, creating it if it is empty. Both sides must agree on the capacity.
+     *
+     * @param capacity data bytes, a power of 2
+     */
+    MappedRing(File file, int capacity, WaitStrategy waitStrategy) throws IOException {
+        if (Integer.bitCount(capacity) != 1 || capacity < RECORD_HEADER) {
+            throw new IllegalArgumentException("capacity must be a power of 2: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.waitStrategy = waitStrategy;
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            if (raf.length() == 0) {
+                raf.setLength(DATA + capacity);
+            }
+            else if (raf.length() != DATA + capacity) {
+                throw new IllegalArgumentException(file + " is not a ring of " + capacity + " bytes");
+            }
+            // the mapping outlives the channel
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, DATA + capacity);
+        }
+        finally {
+            raf.close();
+        }
+        buffer.order(ByteOrder.nativeOrder());
+
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(CAPACITY, capacity);
+            buffer.putInt(0, MAGIC);
+        }
+        else if (buffer.getInt(0) != MAGIC || buffer.getInt(CAPACITY) != capacity) {
+            throw new IllegalArgumentException(file + " is not a ring of " + capacity + " bytes");
+        }
+        producer = buffer.getLong(PRODUCER);
+        consumer = buffer.getLong(CONSUMER);
+
+        // payloads in ByteBuffer's default big-endian order, whatever the platform
+        writeView = buffer.duplicate();
+        readView = buffer.duplicate();
+    }
+
+    /**
+     * Largest payload a record can hold.
+     */
+    int maxPayload() {
+        return capacity - RECORD_HEADER;
+    }
+
+    /**
+     * Appends a record with the payload's remaining bytes, waiting while the consumer hasn't
+     * made room for it.
+     *
+     * @throws IllegalStateException if the ring is closed while waiting
+     */
+    synchronized void write(int type, ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length > maxPayload()) {
+            throw new IllegalArgumentException("Record of " + length + " bytes exceeds the ring capacity " + capacity);
+        }
+        int size = align(RECORD_HEADER + length);
+        int index = (int) (producer & mask);
+        if (index + size > capacity) {
+            int padding = capacity - index;
+            awaitRoom(padding);
+            buffer.putInt(DATA + index, padding - RECORD_HEADER);
+            buffer.putInt(DATA + index + 4, PADDING);
+            producer += padding;
+            publish();
+            index = 0;
+        }
+        awaitRoom(size);
+        buffer.putInt(DATA + index, length);
+        buffer.putInt(DATA + index + 4, type);
+        writeView.clear();
+        writeView.position(DATA + index + RECORD_HEADER);
+        writeView.put(payload);
+        producer += size;
+        publish();
+    }
+
+    /**
+     * Waits until the consumer has read far enough for bytes more after the producer.
+     */
+    private void awaitRoom(int bytes) {
+        long wrapPoint = producer + bytes - capacity;
+        int counter = 0;
+        while (consumerPosition() < wrapPoint) {
+            if (closed) {
+                throw new IllegalStateException("Ring closed");
+            }
+            counter = waitStrategy.idle(counter);
+        }
+    }
+
+    private void publish() {
+        fence();
+        buffer.putLong(PRODUCER, producer);
+    }
+
+    /**
+     * Hands up to limit published records to the handler, on the calling thread.
+     *
+     * @return records handled, padding not counted
+     */
+    int read(Handler handler, int limit) {
+        long available = buffer.getLong(PRODUCER);
+        fence();
+
+        int count = 0;
+        while (consumer < available && count < limit) {
+            int index = (int) (consumer & mask);
+            int length = buffer.getInt(DATA + index);
+            int type = buffer.getInt(DATA + index + 4);
+            if (type != PADDING) {
+                int start = DATA + index + RECORD_HEADER;
+                readView.limit(start + length);
+                readView.position(start);
+                handler.onRecord(type, readView);
+                count++;
+            }
+            consumer += align(RECORD_HEADER + length);
+        }
+
+        fence();
+        buffer.putLong(CONSUMER, consumer);
+        return count;
+    }
+
+    /**
+     * Makes a producer waiting for room give up. The file stays as it is for the next run.
+     */
+    void close() {
+        closed = true;
+    }
+
+    private long consumerPosition() {
+        long position = buffer.getLong(CONSUMER);
+        fence();
+        return position;
+    }
+
+    /**
+     * A volatile store followed by a volatile load, which keeps plain accesses on either side
+     * from moving across it, the only full fence Java 7 offers.
+     */
+    static void fence() {
+        fence = 0;
+        if (fence != 0) {
+            throw new AssertionError();
+        }
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -0,0 +1,38 @@
+package rxeventbus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * {@link EventInvoker} calling a @Subscribe method through an exact (Object, Object)void
+ * MethodHandle. Only loaded when {@link InvokerStrategy#METHOD_HANDLE} is used.
+ */
+
+final class MethodHandleInvoker implements EventInvoker {
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final MethodHandle handle;
+
+    private MethodHandleInvoker(MethodHandle handle) {
+        this.handle = handle;
+    }
+
+    static EventInvoker create(Method method) throws IllegalAccessException {
+        // public methods of non public receiver classes need the access check lifted
+        method.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return new MethodHandleInvoker(handle.asType(INVOKER_TYPE));
+    }
+
+    @Override
+    public void invoke(Object receiver, Object event) throws Throwable {
+        handle.invokeExact(receiver, event);
+    }
+}
@@ -0,0 +1,115 @@
+package rxeventbus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counters per event class and latency histograms per subscriber method of one bus. Only
+ * exists on buses built with metrics on; everywhere else the bus and its subscribers hold
+ * null and skip recording after one null check.
+ */
+
+final class Metrics {
+
+    static final class TypeCounters {
+        final StripedCounter published = new StripedCounter();
+        final StripedCounter delivered = new StripedCounter();
+    }
+
+    /**
+     * Shared by the subscribers of every receiver instance of one method.
+     */
+    static final class Handler {
+        final Class<?> eventType;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final StripedCounter failures = new StripedCounter();
+        private final Metrics metrics;
+
+        Handler(Metrics metrics, Class<?> eventType) {
+            this.metrics = metrics;
+            this.eventType = eventType;
+        }
+
+        void onInvoked(Object event, long nanos) {
+            latency.record(nanos);
+            metrics.counters(event.getClass()).delivered.increment();
+        }
+
+        void onFailed(Object event, long nanos) {
+            latency.record(nanos);
+            failures.increment();
+            metrics.counters(event.getClass()).delivered.increment();
+        }
+    }
+
+    private final ConcurrentHashMap<Class<?>, TypeCounters> types = new ConcurrentHashMap<>();
+    // by Subscriber#getMethodId()
+    private final ConcurrentHashMap<String, Handler> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * Counts an event about to be handed to its subscribers. Each subscriber method that
+     * actually handles it counts it as delivered.
+     */
+    void onPublished(Class<?> eventType) {
+        counters(eventType).published.increment();
+    }
+
+    private TypeCounters counters(Class<?> eventType) {
+        TypeCounters counters = types.get(eventType);
+        if (counters == null) {
+            counters = new TypeCounters();
+            TypeCounters existing = types.putIfAbsent(eventType, counters);
+            if (existing != null) {
+                counters = existing;
+            }
+        }
+        return counters;
+    }
+
+    Handler handler(Subscriber subscriber) {
+        String id = subscriber.getMethodId();
+        Handler handler = handlers.get(id);
+        if (handler == null) {
+            handler = new Handler(this, subscriber.getEvent());
+            Handler existing = handlers.putIfAbsent(id, handler);
+            if (existing != null) {
+                handler = existing;
+            }
+        }
+        return handler;
+    }
+
+    MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.EventTypeStats> typeStats = new ArrayList<>(types.size());
+        for (Map.Entry<Class<?>, TypeCounters> entry : types.entrySet()) {
+            TypeCounters counters = entry.getValue();
+            typeStats.add(new MetricsSnapshot.EventTypeStats(entry.getKey(), counters.published.sum(),
+                    counters.delivered.sum()));
+        }
+        Collections.sort(typeStats, new Comparator<MetricsSnapshot.EventTypeStats>() {
+            @Override
+            public int compare(MetricsSnapshot.EventTypeStats a, MetricsSnapshot.EventTypeStats b) {
+                return Long.compare(b.getPublished(), a.getPublished());
+            }
+        });
+
+        List<MetricsSnapshot.HandlerStats> handlerStats = new ArrayList<>(handlers.size());
+        for (Map.Entry<String, Handler> entry : handlers.entrySet()) {
+            Handler handler = entry.getValue();
+            handlerStats.add(new MetricsSnapshot.HandlerStats(entry.getKey(), handler.eventType,
+                    handler.failures.sum(), handler.latency.getTotalNanos(), handler.latency.getMaxNanos(),
+                    handler.latency.counts()));
+        }
+        Collections.sort(handlerStats, new Comparator<MetricsSnapshot.HandlerStats>() {
+            @Override
+            public int compare(MetricsSnapshot.HandlerStats a, MetricsSnapshot.HandlerStats b) {
+                return Long.compare(b.getTotalNanos(), a.getTotalNanos());
+            }
+        });
+        return new MetricsSnapshot(System.currentTimeMillis(), typeStats, handlerStats);
+    }
+}
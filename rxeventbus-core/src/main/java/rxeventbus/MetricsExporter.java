@@ -0,0 +1,15 @@
+package rxeventbus;
+
+import android.support.annotation.NonNull;
+
+/**
+ * Receives a bus's {@link MetricsSnapshot} periodically, see
+ * {@link RxEventBus.Builder#metricsExporter(MetricsExporter, long, java.util.concurrent.TimeUnit)},
+ * e.g. to log it or forward it to a monitoring backend. Called on an RxJava io() thread,
+ * one call at a time.
+ */
+
+public interface MetricsExporter {
+
+    void export(@NonNull MetricsSnapshot snapshot);
+}
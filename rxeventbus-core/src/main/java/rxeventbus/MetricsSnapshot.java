@@ -0,0 +1,188 @@
+package rxeventbus;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counters and handler latencies of a bus with metrics on, see {@link RxEventBus#getMetrics()}.
+ * Counts are totals since the bus was built; each is read without stopping publishers, so
+ * counts taken while events are published may be a few events apart.
+ */
+
+public final class MetricsSnapshot {
+
+    private final long timestamp;
+    private final List<EventTypeStats> eventTypes;
+    private final List<HandlerStats> handlers;
+
+    MetricsSnapshot(long timestamp, List<EventTypeStats> eventTypes, List<HandlerStats> handlers) {
+        this.timestamp = timestamp;
+        this.eventTypes = Collections.unmodifiableList(eventTypes);
+        this.handlers = Collections.unmodifiableList(handlers);
+    }
+
+    /**
+     * @return when the snapshot was taken, in System.currentTimeMillis() time
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return one entry per event class published so far, most published first
+     */
+    public List<EventTypeStats> getEventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * @return one entry per subscriber method subscribed so far, most time spent first
+     */
+    public List<HandlerStats> getHandlers() {
+        return handlers;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("MetricsSnapshot{timestamp=").append(timestamp);
+        for (EventTypeStats type : eventTypes) {
+            sb.append("\n  ").append(type);
+        }
+        for (HandlerStats handler : handlers) {
+            sb.append("\n  ").append(handler);
+        }
+        return sb.append("\n}").toString();
+    }
+
+    /**
+     * Publishing counts of one event class.
+     */
+    public static final class EventTypeStats {
+
+        private final Class<?> eventType;
+        private final long published;
+        private final long delivered;
+
+        EventTypeStats(Class<?> eventType, long published, long delivered) {
+            this.eventType = eventType;
+            this.published = published;
+            this.delivered = delivered;
+        }
+
+        public Class<?> getEventType() {
+            return eventType;
+        }
+
+        /**
+         * @return events of this class published, subscribed to or not
+         */
+        public long getPublished() {
+            return published;
+        }
+
+        /**
+         * @return subscriber method calls that handled events of this class, failed ones
+         *         included. Deliveries cancelled, paced away, dropped by a full buffer or
+         *         skipped by an open circuit breaker don't count, nor do queued ones until
+         *         their subscriber handles them
+         */
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * @return subscriber method calls per published event of this class on average
+         */
+        public double getMeanFanOut() {
+            return published == 0 ? 0 : (double) delivered / published;
+        }
+
+        @Override
+        public String toString() {
+            return "EventTypeStats{eventType=" + eventType.getName() + ", published=" + published
+                    + ", delivered=" + delivered + "}";
+        }
+    }
+
+    /**
+     * Calls and running time of one subscriber method, over all its receiver instances.
+     */
+    public static final class HandlerStats {
+
+        private final String handlerId;
+        private final Class<?> eventType;
+        private final long invocations;
+        private final long failures;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long[] counts;
+
+        HandlerStats(String handlerId, Class<?> eventType, long failures, long totalNanos, long maxNanos,
+                     long[] counts) {
+            this.handlerId = handlerId;
+            this.eventType = eventType;
+            this.failures = failures;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.counts = counts;
+            long invocations = 0;
+            for (long count : counts) {
+                invocations += count;
+            }
+            this.invocations = invocations;
+        }
+
+        /**
+         * @return receiver class, method name and event type, as in the bus's log messages
+         */
+        public String getHandlerId() {
+            return handlerId;
+        }
+
+        public Class<?> getEventType() {
+            return eventType;
+        }
+
+        /**
+         * @return calls of the method, failed ones included
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * @return calls that threw
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long getMeanNanos() {
+            return invocations == 0 ? 0 : totalNanos / invocations;
+        }
+
+        /**
+         * @param percentile between 0 and 100, e.g. 99.9
+         * @return the call duration at or below which that share of the calls were, to
+         *         within 1/16 of the value
+         */
+        public long getNanosAtPercentile(double percentile) {
+            return LatencyHistogram.valueAtPercentile(counts, maxNanos, percentile);
+        }
+
+        @Override
+        public String toString() {
+            return "HandlerStats{handlerId=" + handlerId + ", invocations=" + invocations + ", failures=" + failures
+                    + ", meanNanos=" + getMeanNanos() + ", p50Nanos=" + getNanosAtPercentile(50)
+                    + ", p99Nanos=" + getNanosAtPercentile(99) + ", maxNanos=" + maxNanos + "}";
+        }
+    }
+}
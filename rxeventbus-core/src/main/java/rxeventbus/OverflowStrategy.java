@@ -0,0 +1,31 @@
+package rxeventbus;
+
+/**
+ * What happens when a subscriber's bounded buffer is full, see
+ * {@link rxeventbus.annotation.Subscribe#bufferSize()}.
+ */
+
+public enum OverflowStrategy {
+
+    /**
+     * Drop the new event, keeping the buffered ones.
+     */
+    DROP,
+
+    /**
+     * Drop the oldest buffered event, so the subscriber catches up with the latest ones.
+     */
+    LATEST,
+
+    /**
+     * Drop the new event and throw {@link io.reactivex.exceptions.MissingBackpressureException}
+     * from publish(), after the other subscribers got the event.
+     */
+    ERROR,
+
+    /**
+     * Block the publishing thread until the subscriber has room. Never use with a MAIN
+     * subscriber of events published on the main thread.
+     */
+    BLOCK
+}
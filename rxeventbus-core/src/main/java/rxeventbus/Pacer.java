@@ -0,0 +1,164 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.exceptions.MissingBackpressureException;
+
+/**
+ * Holds back the events of one paced subscriber and hands on the ones its {@link Pacing}
+ * lets through. Only the latest event is kept and at most one timeout per subscriber is
+ * pending, on the shared {@link TimerWheel}, so thousands of paced subscribers cost one
+ * timer thread and no task per event.
+ *
+ * The timer thread only hands expired timeouts to the scheduler, which decides what to
+ * deliver and delivers it: POSTING subscribers get those events on a scheduler thread, so a
+ * slow or blocking subscriber never holds up the timer. A subscriber's deliveries are one
+ * at a time and in order.
+ */
+
+final class Pacer implements Runnable {
+
+    /**
+     * Delivers an event the pacing let through on the subscriber's ThreadMode.
+     */
+    interface Sink {
+        void deliver(Subscriber subscriber, Object event);
+
+        /**
+         * A flush overflowed the subscriber's buffer, off any publisher's thread.
+         */
+        void dropped(Subscriber subscriber, Object event, MissingBackpressureException overflow);
+    }
+
+    private final Subscriber subscriber;
+    private final Pacing pacing;
+    private final Sink sink;
+    private final TimerWheel timer;
+    private final Scheduler scheduler;
+    // held through a whole flush, so a flush waits for the previous one to be delivered
+    private final Object flushLock = new Object();
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    // SAMPLE periods are counted from here
+    private final long start = System.nanoTime();
+
+    // guarded by this
+    private Object latest;
+    private long lastEventNanos;
+    private TimerWheel.Timeout timeout;
+    private boolean shutdown;
+
+    /**
+     * @param scheduler runs the flushes of expired timeouts
+     */
+    Pacer(Subscriber subscriber, Pacing pacing, Sink sink, TimerWheel timer, Scheduler scheduler) {
+        this.subscriber = subscriber;
+        this.pacing = pacing;
+        this.sink = sink;
+        this.timer = timer;
+        this.scheduler = scheduler;
+    }
+
+    void offer(Object event) {
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            switch (pacing.kind) {
+                case DEBOUNCE:
+                    latest = event;
+                    lastEventNanos = System.nanoTime();
+                    // a pending timeout reschedules itself for the rest of the quiet period
+                    if (timeout == null) {
+                        schedule(pacing.periodNanos);
+                    }
+                    return;
+                case THROTTLE:
+                    if (timeout != null) {
+                        latest = event;
+                        return;
+                    }
+                    schedule(pacing.periodNanos);
+                    // the first event of a period goes out right away, below
+                    break;
+                default:
+                    latest = event;
+                    if (timeout == null) {
+                        long elapsed = (System.nanoTime() - start) % pacing.periodNanos;
+                        schedule(pacing.periodNanos - elapsed);
+                    }
+                    return;
+            }
+        }
+        sink.deliver(subscriber, event);
+    }
+
+    /**
+     * The pending timeout expired, on the timer thread.
+     */
+    @Override
+    public void run() {
+        scheduler.scheduleDirect(flush);
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            Object event = next();
+            if (event != null && subscriber.isActive()) {
+                try {
+                    sink.deliver(subscriber, event);
+                }
+                catch (MissingBackpressureException mbe) {
+                    sink.dropped(subscriber, event, mbe);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the event to deliver now the timeout expired, or null
+     */
+    private Object next() {
+        Object event;
+        synchronized (this) {
+            timeout = null;
+            if (shutdown) {
+                return null;
+            }
+            if (pacing.kind == Pacing.Kind.DEBOUNCE) {
+                long quiet = System.nanoTime() - lastEventNanos;
+                if (quiet < pacing.periodNanos) {
+                    schedule(pacing.periodNanos - quiet);
+                    return null;
+                }
+            }
+            event = latest;
+            latest = null;
+            // a throttle period without events ends the throttling
+            if (event != null && pacing.kind == Pacing.Kind.THROTTLE) {
+                schedule(pacing.periodNanos);
+            }
+        }
+        return event;
+    }
+
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            latest = null;
+            if (timeout != null) {
+                timeout.cancel();
+                timeout = null;
+            }
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        timeout = timer.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
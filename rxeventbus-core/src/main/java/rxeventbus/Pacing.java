@@ -0,0 +1,49 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-based rate limit of a subscriber, from @Subscribe's debounceMs, throttleMs or
+ * sampleMs. Applied per subscriber by a {@link Pacer}.
+ */
+
+final class Pacing {
+
+    enum Kind {
+        // the latest event, once none followed for the period
+        DEBOUNCE,
+        // the first event at once, then the latest at the end of each period with events
+        THROTTLE,
+        // the latest event at each period boundary, if a new one came
+        SAMPLE
+    }
+
+    final Kind kind;
+    final long periodNanos;
+
+    private Pacing(Kind kind, long periodMs) {
+        this.kind = kind;
+        this.periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+    }
+
+    /**
+     * @return the pacing set, or null if none is
+     * @throws IllegalArgumentException if more than one is set or any is negative
+     */
+    static Pacing of(long debounceMs, long throttleMs, long sampleMs) {
+        if (debounceMs < 0 || throttleMs < 0 || sampleMs < 0) {
+            throw new IllegalArgumentException("debounceMs, throttleMs and sampleMs must not be negative");
+        }
+        int set = (debounceMs > 0 ? 1 : 0) + (throttleMs > 0 ? 1 : 0) + (sampleMs > 0 ? 1 : 0);
+        if (set > 1) {
+            throw new IllegalArgumentException("Only one of debounceMs, throttleMs and sampleMs may be set");
+        }
+        if (debounceMs > 0) {
+            return new Pacing(Kind.DEBOUNCE, debounceMs);
+        }
+        if (throttleMs > 0) {
+            return new Pacing(Kind.THROTTLE, throttleMs);
+        }
+        return sampleMs > 0 ? new Pacing(Kind.SAMPLE, sampleMs) : null;
+    }
+}
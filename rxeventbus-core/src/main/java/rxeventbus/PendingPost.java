@@ -0,0 +1,24 @@
+package rxeventbus;
+
+/**
+ * An event waiting to be delivered to a subscriber off the publishing thread.
+ */
+
+final class PendingPost implements Runnable {
+
+    final Subscriber subscriber;
+    final Object event;
+
+    PendingPost(Subscriber subscriber, Object event) {
+        this.subscriber = subscriber;
+        this.event = event;
+    }
+
+    @Override
+    public void run() {
+        // the receiver may have unsubscribed while this was queued
+        if (subscriber.isActive()) {
+            subscriber.invoke(event);
+        }
+    }
+}
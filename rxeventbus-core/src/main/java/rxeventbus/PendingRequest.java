@@ -0,0 +1,57 @@
+package rxeventbus;
+
+import io.reactivex.SingleEmitter;
+
+/**
+ * A request waiting for its reply, see {@link RxEventBus#request}. The request event itself
+ * is the correlation id: a reply names it, and the table finds the waiting caller by the
+ * request's identity, never by equals().
+ */
+
+final class PendingRequest<T> {
+
+    private final Class<T> replyType;
+    private final SingleEmitter<T> emitter;
+    // set before the request is published, cancelled once the reply arrives
+    TimerWheel.Timeout timeout;
+
+    PendingRequest(Class<T> replyType, SingleEmitter<T> emitter) {
+        this.replyType = replyType;
+        this.emitter = emitter;
+    }
+
+    boolean accepts(Object reply) {
+        return replyType.isInstance(reply);
+    }
+
+    void complete(Object reply) {
+        timeout.cancel();
+        emitter.onSuccess(replyType.cast(reply));
+    }
+
+    void fail(Throwable error) {
+        emitter.onError(error);
+    }
+
+    /**
+     * Identity key for a request event in the pending request table.
+     */
+    static final class Key {
+
+        private final Object request;
+
+        Key(Object request) {
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object another) {
+            return another instanceof Key && ((Key) another).request == request;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(request);
+        }
+    }
+}
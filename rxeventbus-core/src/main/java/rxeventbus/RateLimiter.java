@@ -0,0 +1,33 @@
+package rxeventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allows up to a number of permits per one second window, without locking. Windows start
+ * at the first acquire after the previous one ended.
+ */
+
+final class RateLimiter {
+
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final int permitsPerSecond;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicInteger acquired = new AtomicInteger();
+
+    RateLimiter(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        // one thread opens the new window, the others count against it
+        if (now - start >= WINDOW && windowStart.compareAndSet(start, now)) {
+            acquired.set(0);
+        }
+        return acquired.incrementAndGet() <= permitsPerSecond;
+    }
+}
@@ -0,0 +1,44 @@
+package rxeventbus;
+
+import java.lang.ref.ReferenceQueue;
+
+/**
+ * Daemon thread shared by every bus with weak receivers. It blocks on one ReferenceQueue
+ * and unsubscribes each receiver the garbage collector clears, so publishing never checks
+ * whether receivers are still alive.
+ */
+
+final class ReceiverReaper implements Runnable {
+
+    private static final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private static Thread thread;
+
+    private ReceiverReaper() {
+    }
+
+    /**
+     * @return the queue collected receivers are reported to, starting the reaper on first use
+     */
+    static synchronized ReferenceQueue<Object> queue() {
+        if (thread == null) {
+            thread = new Thread(new ReceiverReaper(), "RxEventBus-reaper");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return queue;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            ReceiverReference reference;
+            try {
+                reference = (ReceiverReference) queue.remove();
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            reference.getBus().reap(reference);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package rxeventbus;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * Identifies a subscribed receiver in the {@link DispatchTable}. Two references are equal
+ * while they refer to the same receiver instance, so a throwaway one finds the registered
+ * one; once cleared, a reference only equals itself, which is all the reaper needs.
+ *
+ * With weak receivers on this is the only reference the bus keeps, and the collected
+ * receiver's reference is queued for {@link ReceiverReaper}.
+ */
+
+final class ReceiverReference extends WeakReference<Object> {
+
+    private final int hash;
+    private final Class<?> receiverClass;
+    // bus to purge once the receiver is collected, null unless reaped
+    private final RxEventBus bus;
+
+    ReceiverReference(Object receiver) {
+        super(receiver);
+        hash = System.identityHashCode(receiver);
+        receiverClass = receiver.getClass();
+        bus = null;
+    }
+
+    ReceiverReference(Object receiver, RxEventBus bus, ReferenceQueue<Object> queue) {
+        super(receiver, queue);
+        hash = System.identityHashCode(receiver);
+        receiverClass = receiver.getClass();
+        this.bus = bus;
+    }
+
+    Class<?> getReceiverClass() {
+        return receiverClass;
+    }
+
+    RxEventBus getBus() {
+        return bus;
+    }
+
+    @Override
+    public boolean equals(Object another) {
+        if (another == this) {
+            return true;
+        }
+        if (another instanceof ReceiverReference) {
+            Object receiver = get();
+            return receiver != null && receiver == ((ReceiverReference) another).get();
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
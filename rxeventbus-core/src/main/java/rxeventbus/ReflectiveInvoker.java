@@ -0,0 +1,35 @@
+package rxeventbus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * {@link EventInvoker} backed by {@link Method#invoke(Object, Object...)}.
+ * Used when no generated {@link rxeventbus.index.SubscriberIndex} knows the receiver class.
+ */
+
+final class ReflectiveInvoker implements EventInvoker {
+
+    private final Method method;
+
+    ReflectiveInvoker(Method method) {
+        this.method = method;
+        // skips the access check on every call, and allows public methods of non public classes
+        try {
+            method.setAccessible(true);
+        }
+        catch (SecurityException se) {
+            // keep the checked call
+        }
+    }
+
+    @Override
+    public void invoke(Object receiver, Object event) throws Throwable {
+        try {
+            method.invoke(receiver, event);
+        }
+        catch (InvocationTargetException ite) {
+            throw ite.getCause();
+        }
+    }
+}
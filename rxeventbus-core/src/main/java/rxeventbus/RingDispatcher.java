@@ -0,0 +1,237 @@
+package rxeventbus;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Multi-producer ring buffer in front of the dispatch table, for buses built with
+ * {@link RxEventBus.Builder#ringBuffer}. Publishers claim a slot with one atomic increment,
+ * store the event and mark the slot published; consumer threads claim runs of batchSize
+ * slots and hand each event to the {@link Handler} as soon as it is published. Nothing is
+ * allocated per event and a full ring makes publishers wait instead of growing a queue.
+ *
+ * With one consumer events are handled in publish order. With several, each takes its own
+ * runs, so events of different runs may be handled out of order.
+ */
+
+final class RingDispatcher {
+
+    interface Handler {
+        void onEvent(Object event);
+    }
+
+    private final Object[] events;
+    // round (sequence / size) each slot was last published for, -1 while never published
+    private final AtomicIntegerArray published;
+    private final int mask;
+    private final int shift;
+    private final int batchSize;
+    private final WaitStrategy waitStrategy;
+    private final Handler handler;
+
+    // next sequence for a publisher to claim
+    private final AtomicLong claimed = new AtomicLong();
+    // next sequence for a consumer to claim
+    private final AtomicLong workSequence = new AtomicLong();
+    // per consumer, every sequence below it is handled
+    private final AtomicLong[] consumed;
+    private final Thread[] consumers;
+    // claimed by publishers that gave up at shutdown, never published, skipped by the consumers
+    private final Set<Long> abandoned = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+    private volatile boolean running = true;
+
+    /**
+     * @param bufferSize slots, a power of 2
+     * @param batchSize sequences a consumer claims at once, at most bufferSize
+     */
+    RingDispatcher(int bufferSize, int consumerCount, WaitStrategy waitStrategy, int batchSize, Handler handler) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+        }
+        if (batchSize < 1 || batchSize > bufferSize) {
+            throw new IllegalArgumentException("batchSize must be between 1 and bufferSize: " + batchSize);
+        }
+        if (consumerCount < 1) {
+            throw new IllegalArgumentException("consumers must be at least 1: " + consumerCount);
+        }
+        this.events = new Object[bufferSize];
+        this.published = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            published.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.shift = Integer.numberOfTrailingZeros(bufferSize);
+        this.batchSize = batchSize;
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+
+        consumed = new AtomicLong[consumerCount];
+        consumers = new Thread[consumerCount];
+        for (int i = 0; i < consumerCount; i++) {
+            final AtomicLong progress = consumed[i] = new AtomicLong();
+            consumers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    consume(progress);
+                }
+            }, "RxEventBus-ring-" + i);
+            consumers[i].setDaemon(true);
+            consumers[i].start();
+        }
+    }
+
+    void publish(Object event) {
+        if (!running) {
+            throw new IllegalStateException("RxEventBus was shut down");
+        }
+        long sequence = claimed.getAndIncrement();
+        // the slot is free once every consumer is past the sequence that used it last
+        long wrapPoint = sequence - events.length;
+        int counter = 0;
+        while (wrapPoint >= minimumConsumed()) {
+            if (!running) {
+                abandoned.add(sequence);
+                throw new IllegalStateException("RxEventBus was shut down");
+            }
+            counter = waitStrategy.idle(counter);
+        }
+        int slot = (int) sequence & mask;
+        events[slot] = event;
+        // release, the consumer reads the event after seeing its round
+        published.lazySet(slot, (int) (sequence >>> shift));
+    }
+
+    /**
+     * Publishes the event only if a slot is free right now, for callers that must not wait.
+     *
+     * @return false if the ring is full or shut down
+     */
+    boolean tryPublish(Object event) {
+        for (;;) {
+            if (!running) {
+                return false;
+            }
+            long sequence = claimed.get();
+            if (sequence - events.length >= minimumConsumed()) {
+                return false;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                int slot = (int) sequence & mask;
+                events[slot] = event;
+                published.lazySet(slot, (int) (sequence >>> shift));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return whether the calling thread is one of the consumers. A consumer must not wait
+     * in {@link #publish(Object)}, it might be the only one who could free a slot
+     */
+    boolean isConsumerThread() {
+        Thread current = Thread.currentThread();
+        for (Thread consumer : consumers) {
+            if (consumer == current) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lets the consumers finish what is already published, then stops them. Events posted
+     * while shutting down may be dropped; publishers waiting for a free slot give up with
+     * an IllegalStateException, and the consumers skip the slots they had claimed.
+     */
+    void shutdown() {
+        running = false;
+    }
+
+    /**
+     * Waits for the consumers to stop after {@link #shutdown()}.
+     *
+     * @return false if they were still running when the timeout passed
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread consumer : consumers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(consumer, remaining);
+            if (consumer.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void consume(AtomicLong progress) {
+        for (;;) {
+            long first = workSequence.getAndAdd(batchSize);
+            long end = first + batchSize;
+            // sequences below first are this consumer's finished runs or someone else's
+            progress.lazySet(first);
+            for (long sequence = first; sequence < end; sequence++) {
+                int slot = (int) sequence & mask;
+                int round = (int) (sequence >>> shift);
+                int counter = 0;
+                boolean skip = false;
+                while (published.get(slot) != round) {
+                    if (!running) {
+                        if (sequence >= claimed.get()) {
+                            // claimed by nobody, so never published
+                            progress.set(Long.MAX_VALUE);
+                            return;
+                        }
+                        if (abandoned.remove(sequence)) {
+                            skip = true;
+                            break;
+                        }
+                    }
+                    counter = waitStrategy.idle(counter);
+                }
+                if (!skip) {
+                    Object event = events[slot];
+                    events[slot] = null;
+                    handle(event);
+                }
+            }
+            // publishers may reuse the batch's slots from here
+            progress.lazySet(end);
+        }
+    }
+
+    /**
+     * Runs the handler, reporting whatever it throws to the thread's uncaught exception
+     * handler. Errors included: a consumer that stopped would leave publishers waiting for
+     * its slots forever.
+     */
+    private void handle(Object event) {
+        try {
+            handler.onEvent(event);
+        }
+        catch (Throwable t) {
+            Thread currentThread = Thread.currentThread();
+            try {
+                currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, t);
+            }
+            catch (Throwable ignored) {
+                // nowhere left to report it
+            }
+        }
+    }
+
+    private long minimumConsumed() {
+        long minimum = Long.MAX_VALUE;
+        for (AtomicLong progress : consumed) {
+            minimum = Math.min(minimum, progress.get());
+        }
+        return minimum;
+    }
+}
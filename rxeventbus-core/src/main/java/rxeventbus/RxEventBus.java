@@ -0,0 +1,1560 @@
+package rxeventbus;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.SingleOnSubscribe;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.functions.Cancellable;
+import io.reactivex.schedulers.Schedulers;
+import rxeventbus.index.SubscriberIndex;
+
+/**
+ * @author gil.cunningham@gmail.com
+ *
+ * Simple event bus which leverages Rx to subscribe to and publish events.
+ * Makes use of annotations to search receivers list of subscribed methods.
+ * Receivers covered by a generated {@link SubscriberIndex} (see {@link #addIndex(SubscriberIndex)})
+ * are registered without any reflection, everything else falls back to a reflective scan.
+ * Each @Subscribe method picks the thread it runs on with a {@link ThreadMode}, backed by Rx
+ * {@link Scheduler}s, optionally through a bounded, backpressured Flowable per subscriber.
+ *
+ * The static methods all work on the default bus, see {@link #getDefault()}. Subsystems that
+ * shouldn't share receivers, caches or locks with it create their own with {@link #builder()}:
+ *
+ * <b>
+ * RxEventBus bus = RxEventBus.builder().eventInheritance(true).build();
+ * bus.register(this);
+ * bus.post(new SomeMessage("Only for this bus"));
+ * </b>
+ *
+ * Note:
+ * The term "receiver" throughout refers to any class which includes the @Subscribe annotation
+ * above a public method that takes a single parameter.
+ */
+
+public final class RxEventBus {
+
+    private static volatile RxEventBus defaultBus;
+
+    // Event being delivered on the current thread, for cancelEventDelivery(), shared by all buses
+    private static final ThreadLocal<PostingState> postingState = new ThreadLocal<PostingState>() {
+        @Override
+        protected PostingState initialValue() {
+            return new PostingState();
+        }
+    };
+
+    // Subscribers by event type and by receiver, replaced as a whole on every change
+    private volatile DispatchTable dispatchTable = DispatchTable.EMPTY;
+    // Serializes register/unregister, post never takes it
+    private final Object registryLock = new Object();
+    // @Subscribe methods by receiver class
+    private final SubscriberMethodFinder subscriberMethodFinder = new SubscriberMethodFinder();
+
+    // Last sticky event by Class (event)
+    private final StickyEventCache stickyEvents;
+    // Schedulers for ThreadMode.MAIN, BACKGROUND and ASYNC
+    private Scheduler mainThreadScheduler;
+    private Scheduler backgroundScheduler;
+    private volatile Scheduler asyncScheduler;
+    // Ordered, batching delivery for MAIN and BACKGROUND, created on first use
+    private volatile ScheduledPoster mainPoster;
+    private volatile ScheduledPoster backgroundPoster;
+    private final Object posterLock = new Object();
+    // Bounded delivery by Class (event), for subscribers whose method doesn't set a bufferSize
+    private final Map<Class<?>, Backpressure> eventBackpressure = new ConcurrentHashMap<>();
+    // Events dropped by full subscriber buffers, in total and by Class (event)
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final ConcurrentHashMap<Class<?>, AtomicLong> droppedByEvent = new ConcurrentHashMap<>();
+    private final FlowablePoster.DropListener dropCounter = new FlowablePoster.DropListener() {
+        @Override
+        public void onDropped(Subscriber subscriber) {
+            droppedEvents.incrementAndGet();
+            increment(droppedByEvent, subscriber.getEvent());
+        }
+    };
+    // bounded ASYNC deliveries, on whatever the async scheduler is at the time
+    private final Executor asyncExecutor = new Executor() {
+        @Override
+        public void execute(Runnable delivery) {
+            asyncScheduler.scheduleDirect(delivery);
+        }
+    };
+
+    // Hold receivers through weak references only, unsubscribing them once collected
+    private volatile boolean weakReceivers;
+    // Receivers unsubscribed by the reaper, in total and by Class (receiver)
+    private final AtomicLong reapedReceivers = new AtomicLong();
+    private final ConcurrentHashMap<Class<?>, AtomicLong> reapedByReceiver = new ConcurrentHashMap<>();
+
+    // Collapses postCoalesced() events to the latest per key
+    private volatile EventCoalescer coalescer;
+
+    // Level-gated, only called while posting when a subscriber method fails
+    private volatile EventBusLogger logger;
+
+    // Requests waiting for a reply, by request identity
+    private final ConcurrentHashMap<PendingRequest.Key, PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+
+    // Limits DeadEvents for events nobody subscribed to, null while they are off
+    private volatile RateLimiter deadEventLimiter;
+    private final AtomicLong suppressedDeadEvents = new AtomicLong();
+
+    // Hands posts to consumer threads instead of dispatching on the posting thread, or null
+    private final RingDispatcher ringDispatcher;
+
+    // Runs POSTING subscribers' mailboxes for events with at least fanOutThreshold subscribers,
+    // null unless parallel fan-out is on
+    private final Executor fanOutExecutor;
+    // the fan-out pool if this bus created it, shut down with the bus
+    private final ForkJoinPool ownFanOutPool;
+    private final int fanOutThreshold;
+    private final int mailboxSize;
+
+    // Opens a breaker per subscriber on repeated failures, null while breakers are off
+    private volatile CircuitBreaker.Policy circuitBreakerPolicy;
+    // Limits logging failures nobody subscribed a SubscriberExceptionEvent handler for
+    private final RateLimiter failureLogLimiter = new RateLimiter(10);
+    private final AtomicLong suppressedFailureLogs = new AtomicLong();
+
+    // Turns subscriber failures into SubscriberExceptionEvents
+    private final Subscriber.FailureHandler failureHandler = new Subscriber.FailureHandler() {
+        @Override
+        public void onFailure(Subscriber subscriber, Object event, Throwable throwable, boolean circuitOpened) {
+            handleFailure(subscriber, event, throwable, circuitOpened);
+        }
+
+        @Override
+        public void onCircuitClosed(Subscriber subscriber, long skipped) {
+            EventBusLogger logger = RxEventBus.this.logger;
+            if (logger.isLoggable(Level.INFO)) {
+                logger.log(Level.INFO, "Circuit closed for " + subscriber.getId() + ", skipped " + skipped + " events");
+            }
+        }
+    };
+
+    // Per type counters and per method latencies, null unless metrics are on
+    private final Metrics metrics;
+    // Hands snapshots to the builder's exporter, or null
+    private final Disposable metricsExport;
+
+    // Where paced subscribers' events go once let through
+    private final Pacer.Sink pacedSink = new Pacer.Sink() {
+        @Override
+        public void deliver(Subscriber subscriber, Object event) {
+            RxEventBus.this.deliver(subscriber, event, false);
+        }
+
+        @Override
+        public void dropped(Subscriber subscriber, Object event, MissingBackpressureException overflow) {
+            if (logger.isLoggable(Level.WARNING)) {
+                logger.log(Level.WARNING, "Dropped " + event, overflow);
+            }
+        }
+    };
+
+    private RxEventBus(Builder builder) {
+        for (SubscriberIndex index : builder.indexes) {
+            subscriberMethodFinder.addIndex(index);
+        }
+        if (builder.invokerStrategy != null) {
+            subscriberMethodFinder.setInvokerStrategy(builder.invokerStrategy);
+        }
+        dispatchTable = dispatchTable.withEventInheritance(builder.eventInheritance);
+        weakReceivers = builder.weakReceivers;
+        stickyEvents = new StickyEventCache(builder.stickyMaxEvents, builder.stickyMaxAge, TimeUnit.NANOSECONDS);
+        mainThreadScheduler = builder.mainThreadScheduler;
+        backgroundScheduler = builder.backgroundScheduler;
+        asyncScheduler = builder.asyncScheduler;
+        eventBackpressure.putAll(builder.eventBackpressure);
+        coalescer = createCoalescer(builder.coalescingScheduler, builder.coalescingWindow, TimeUnit.NANOSECONDS);
+        logger = builder.logger;
+        deadEventLimiter = builder.deadEventsPerSecond > 0 ? new RateLimiter(builder.deadEventsPerSecond) : null;
+        ringDispatcher = builder.ringBufferSize == 0 ? null
+                : new RingDispatcher(builder.ringBufferSize, builder.ringConsumers, builder.ringWaitStrategy,
+                        builder.ringBatchSize, new RingDispatcher.Handler() {
+                            @Override
+                            public void onEvent(Object event) {
+                                dispatchFromRing(event);
+                            }
+                        });
+        ownFanOutPool = builder.fanOutThreshold > 0 && builder.fanOutExecutor == null ? new ForkJoinPool() : null;
+        fanOutExecutor = ownFanOutPool != null ? ownFanOutPool : builder.fanOutExecutor;
+        fanOutThreshold = builder.fanOutThreshold;
+        mailboxSize = builder.mailboxSize;
+        circuitBreakerPolicy = builder.circuitBreakerPolicy;
+        metrics = builder.metrics ? new Metrics() : null;
+        metricsExport = builder.metricsExporter == null ? null : exportMetrics(builder.metricsExporter,
+                builder.metricsExportPeriod);
+    }
+
+    private Disposable exportMetrics(final MetricsExporter exporter, long periodNanos) {
+        return Schedulers.io().schedulePeriodicallyDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    exporter.export(metrics.snapshot());
+                }
+                catch (Throwable t) {
+                    if (t instanceof VirtualMachineError || t instanceof ThreadDeath) {
+                        throw (Error) t;
+                    }
+                    // a failure escaping the task would cancel every later export
+                    if (logger.isLoggable(Level.WARNING)) {
+                        logger.log(Level.WARNING, "Metrics exporter " + exporter + " failed", t);
+                    }
+                }
+            }
+        }, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return a builder for a bus independent of the default one and of any other
+     */
+    @NonNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the bus behind the static methods, created with the builder's defaults on first
+     * use unless {@link Builder#installDefault()} set it up first
+     */
+    @NonNull
+    public static RxEventBus getDefault() {
+        RxEventBus bus = defaultBus;
+        if (bus == null) {
+            synchronized (RxEventBus.class) {
+                bus = defaultBus;
+                if (bus == null) {
+                    bus = defaultBus = new RxEventBus(new Builder());
+                }
+            }
+        }
+        return bus;
+    }
+
+    /**
+     * Registers a subscriber index generated by the rxeventbus-compiler annotation processor.
+     * Call once, before subscribing any receiver the index covers:
+     *
+     * <b>
+     * RxEventBus.addIndex(new MyEventBusIndex());
+     * </b>
+     */
+    public static void addIndex(@NonNull SubscriberIndex index) {
+        getDefault().subscriberMethodFinder.addIndex(index);
+    }
+
+    /**
+     * Selects how @Subscribe methods found with reflection are called. Defaults to the
+     * fastest {@link InvokerStrategy} the runtime supports; affects receivers subscribed
+     * afterwards.
+     */
+    public static void setInvokerStrategy(@NonNull InvokerStrategy strategy) {
+        getDefault().subscriberMethodFinder.setInvokerStrategy(strategy);
+    }
+
+    /**
+     * Sets the scheduler ThreadMode.MAIN methods run on. Defaults to RxAndroid's
+     * AndroidSchedulers.mainThread(); anywhere else it must be set before subscribing
+     * MAIN methods, e.g. to Schedulers.trampoline() in JVM tests. Events already queued for
+     * MAIN methods are delivered on the new scheduler, in order.
+     */
+    public static void setMainThreadScheduler(@NonNull Scheduler scheduler) {
+        getDefault().replaceMainThreadScheduler(scheduler);
+    }
+
+    /**
+     * Sets the scheduler ThreadMode.BACKGROUND methods run on, one worker of it is used.
+     * Defaults to Schedulers.io(). Events already queued for BACKGROUND methods are delivered
+     * on the new scheduler, in order.
+     */
+    public static void setBackgroundScheduler(@NonNull Scheduler scheduler) {
+        getDefault().replaceBackgroundScheduler(scheduler);
+    }
+
+    /**
+     * Sets the scheduler ThreadMode.ASYNC methods run on. Defaults to Schedulers.io(), see
+     * {@link VirtualThreads} for handlers that block.
+     */
+    public static void setAsyncScheduler(@NonNull Scheduler scheduler) {
+        getDefault().asyncScheduler = scheduler;
+    }
+
+    /**
+     * Bounds the events queued for MAIN, BACKGROUND and ASYNC subscribers of this event type,
+     * unless their @Subscribe sets its own bufferSize. Affects receivers subscribed afterwards.
+     *
+     * @param bufferSize events queued per subscriber, 0 to remove the bound
+     */
+    public static void setBackpressure(@NonNull Class<?> eventType, int bufferSize, @NonNull OverflowStrategy overflow) {
+        putBackpressure(getDefault().eventBackpressure, eventType, bufferSize, overflow);
+    }
+
+    /**
+     * @return events dropped so far because a subscriber's buffer was full
+     */
+    public static long getDroppedEventCount() {
+        return getDefault().getDroppedEvents();
+    }
+
+    /**
+     * @return events dropped so far for subscribers of this event type
+     */
+    public static long getDroppedEventCount(@NonNull Class<?> eventType) {
+        return getDefault().getDroppedEvents(eventType);
+    }
+
+    /**
+     * Turns polymorphic delivery on or off, off by default. When on, methods subscribed to
+     * a superclass or interface also receive events of its subtypes, e.g. a method taking
+     * Object receives every event.
+     */
+    public static void setEventInheritance(boolean inheritance) {
+        RxEventBus bus = getDefault();
+        synchronized (bus.registryLock) {
+            bus.dispatchTable = bus.dispatchTable.withEventInheritance(inheritance);
+        }
+    }
+
+    /**
+     * Replaces where registrations and problems are logged. Defaults to the java.util.logging
+     * Logger "rxeventbus"; {@link EventBusLogger#NONE} turns logging off.
+     */
+    public static void setLogger(@NonNull EventBusLogger logger) {
+        getDefault().logger = logger;
+    }
+
+    /**
+     * Wraps events published with nobody subscribed in a {@link DeadEvent} and publishes
+     * that, at most maxPerSecond times a second. Off, 0, by default; publishing an event
+     * nobody receives then costs one table lookup.
+     */
+    public static void setDeadEvents(int maxPerSecond) {
+        getDefault().deadEventLimiter = maxPerSecond > 0 ? new RateLimiter(maxPerSecond) : null;
+    }
+
+    /**
+     * Skips a subscriber method for openFor after it throws maxFailures times within window,
+     * then lets one event through to probe it: success resumes delivery, another failure
+     * skips it for openFor again. Applies to receivers subscribed from now on. Off by
+     * default, every event is then delivered however often the method throws.
+     *
+     * @throws IllegalArgumentException if maxFailures is below 1, or window or openFor is not positive
+     */
+    public static void setCircuitBreaker(int maxFailures, long window, long openFor, @NonNull TimeUnit unit) {
+        getDefault().circuitBreakerPolicy = new CircuitBreaker.Policy(maxFailures, window, openFor, unit);
+    }
+
+    /**
+     * Holds receivers subscribed from now on through weak references, off by default. A
+     * receiver that is garbage collected without unsubscribing is then unsubscribed in the
+     * background instead of leaking, and counted in {@link #getReapedReceiverCount()}.
+     */
+    public static void setWeakReceivers(boolean weak) {
+        getDefault().weakReceivers = weak;
+    }
+
+    /**
+     * @return receivers unsubscribed so far because they were collected while still subscribed
+     */
+    public static long getReapedReceiverCount() {
+        return getDefault().getReapedReceivers();
+    }
+
+    /**
+     * @return receivers of this class unsubscribed so far because they were collected
+     */
+    public static long getReapedReceiverCount(@NonNull Class<?> receiverClass) {
+        return getDefault().getReapedReceivers(receiverClass);
+    }
+
+    /*
+     * Subscribes a receiver
+     * @param Object receiver
+     * <p>
+     * Subscribe to SomeMessage event in a receiver:
+     * <b>
+     * @Subscribe
+     * public void someMethod(SomeMessage msg) {
+     * ... handle this msg
+     * }
+     * </b>
+     * </p>
+     */
+    public static void subscribe(@NonNull Object receiver) {
+        getDefault().register(receiver);
+    }
+
+    /**
+     * Subscribes a receiver to the {@link KeyedEvent}s with this key only, e.g. the view of
+     * one download to that download's progress events. Applies to the receiver's methods
+     * taking a KeyedEvent type that don't name a key in their @Subscribe; their other
+     * methods receive every event as usual.
+     */
+    public static void subscribe(@NonNull Object receiver, @NonNull String key) {
+        getDefault().register(receiver, key);
+    }
+
+    /**
+     * Publishes a message
+     * @param message
+     *
+     * Publish a SomeMessage event to receiver(s):
+     *
+     * <b>
+     * RxEventBus.publish(new SomeMesssage("Here is the message"));
+     * </b>
+     *
+     * POSTING receivers are called on the publishing thread, the others are queued for
+     * their {@link ThreadMode}. A receiver unsubscribed while the message is being delivered
+     * on the publishing thread may still get it.
+     *
+     * @throws MissingBackpressureException if a subscriber with {@link OverflowStrategy#ERROR}
+     * had no room for the message, after it was delivered to everyone else
+     */
+    public static void publish(@NonNull Object message) {
+        getDefault().post(message);
+    }
+
+    /**
+     * Publishes several messages in order, see {@link #postAll(Collection)}.
+     */
+    public static void publishAll(@NonNull Collection<?> messages) {
+        getDefault().postAll(messages);
+    }
+
+    /**
+     * Publishes a keyed message at the end of the current coalescing window, see
+     * {@link #postCoalesced(KeyedEvent)}.
+     */
+    public static void publishCoalesced(@NonNull KeyedEvent message) {
+        getDefault().postCoalesced(message);
+    }
+
+    /**
+     * Sets how long publishCoalesced() collects messages before publishing, 100 ms on
+     * Schedulers.computation() by default. Applies from the next window.
+     */
+    public static void setCoalescingWindow(long window, @NonNull TimeUnit unit, @NonNull Scheduler scheduler) {
+        RxEventBus bus = getDefault();
+        bus.coalescer = bus.createCoalescer(scheduler, window, unit);
+    }
+
+    /**
+     * Publishes a request and waits for one reply, sent straight back by whichever receiver
+     * calls {@link #reply(Object, Object)} for it rather than broadcast to everyone:
+     *
+     * <b>
+     * RxEventBus.request(new PriceQuery(sku), Price.class, 2, TimeUnit.SECONDS)
+     *         .subscribe(...);
+     *
+     * @Subscribe
+     * public void onPriceQuery(PriceQuery query) {
+     *     RxEventBus.reply(query, lookUp(query));
+     * }
+     * </b>
+     *
+     * The request is published on subscription, and fails with NoSuchElementException if
+     * nobody subscribes to it, TimeoutException if no reply comes in time. The timeout is
+     * signalled on the async scheduler, see {@link #setAsyncScheduler(Scheduler)}. Disposing
+     * abandons it.
+     */
+    @NonNull
+    public static <T> Single<T> request(@NonNull Object request, @NonNull Class<T> replyType,
+                                        long timeout, @NonNull TimeUnit unit) {
+        return getDefault().postRequest(request, replyType, timeout, unit);
+    }
+
+    /**
+     * Completes the pending {@link #request} for this request event.
+     *
+     * @return false if nobody is waiting for it any more, e.g. it timed out
+     * @throws IllegalArgumentException if the reply isn't of the type the requester expects
+     */
+    public static boolean reply(@NonNull Object request, @NonNull Object reply) {
+        return getDefault().postReply(request, reply);
+    }
+
+    /**
+     * Stops delivery of the event to lower priority subscribers, on whichever bus is
+     * delivering it. Call it only from a ThreadMode.POSTING @Subscribe method, while it
+     * handles that event; subscribers already called, or already queued for another thread,
+     * still get it.
+     *
+     * @throws IllegalStateException if the event isn't being delivered to a POSTING
+     * subscriber on the calling thread
+     */
+    public static void cancelEventDelivery(@NonNull Object event) {
+        PostingState state = postingState.get();
+        if (state.event != event) {
+            throw new IllegalStateException("Event " + event + " is not being delivered on this thread");
+        }
+        if (state.subscriber.getThreadMode() != ThreadMode.POSTING) {
+            throw new IllegalStateException("Only POSTING subscribers may cancel event delivery, not "
+                    + state.subscriber.getId());
+        }
+        state.canceled = true;
+    }
+
+    /**
+     * Publishes a message and keeps it as the sticky event of its type, replacing the
+     * previous one. Receivers subscribing later get it right away in their
+     * {@code @Subscribe(sticky = true)} methods.
+     */
+    public static void publishSticky(@NonNull Object message) {
+        getDefault().postSticky(message);
+    }
+
+    /**
+     * @return the sticky event of this type, or null if there is none or it has expired
+     */
+    public static <T> T getSticky(@NonNull Class<T> eventType) {
+        return getDefault().getStickyEvent(eventType);
+    }
+
+    /**
+     * Removes the sticky event of this type.
+     *
+     * @return the removed event, or null if there was none
+     */
+    public static <T> T removeSticky(@NonNull Class<T> eventType) {
+        return getDefault().removeStickyEvent(eventType);
+    }
+
+    public static void removeAllSticky() {
+        getDefault().removeAllStickyEvents();
+    }
+
+    /**
+     * Bounds the sticky event cache, 64 event types and no age limit by default. Once full,
+     * the least recently used event type is evicted. The bound counts event types, each
+     * holding its last event, it does not measure the events' size in bytes.
+     *
+     * @param maxEvents event types kept, at least 1
+     * @param maxAge events older than this are dropped, 0 for no limit
+     */
+    public static void setStickyCacheLimits(int maxEvents, long maxAge, @NonNull TimeUnit unit) {
+        getDefault().stickyEvents.setLimits(maxEvents, maxAge, unit);
+    }
+
+    /**
+     * @return the default bus's counters and handler latencies, or null unless it was
+     * installed with {@link Builder#metrics(boolean)} on
+     */
+    public static MetricsSnapshot getMetricsSnapshot() {
+        return getDefault().getMetrics();
+    }
+
+    /**
+     * @return size, limit and eviction counts of the sticky event cache
+     */
+    @NonNull
+    public static StickyCacheStats getStickyCacheStats() {
+        return getDefault().getStickyEventStats();
+    }
+
+    /**
+     * Unsubscribes a receiver:
+     *
+     * <b>
+     * RxBus.unsubscribe(this); // where this is the receiver
+     * </b>
+     */
+    public static void unsubscribe(@NonNull Object receiver) {
+        getDefault().unregister(receiver);
+    }
+
+    /**
+     * Subscribes the receiver's @Subscribe methods to this bus.
+     *
+     * @throws RuntimeException if the receiver is already registered
+     */
+    public void register(@NonNull Object receiver) {
+        register(receiver, null);
+    }
+
+    /**
+     * Subscribes the receiver's @Subscribe methods to this bus, see
+     * {@link #subscribe(Object, String)}.
+     *
+     * @param key routing key for the methods taking a {@link KeyedEvent} that have none of
+     *            their own, null to receive every event
+     * @throws RuntimeException if the receiver is already registered
+     */
+    public void register(@NonNull Object receiver, String key) {
+        register(receiver, subscriberMethodFinder.findSubscriberMethods(receiver.getClass()), key);
+    }
+
+    /**
+     * Subscribes the receiver with methods of its own rather than its @Subscribe methods,
+     * for receivers like {@link MappedEventBridge} that pick their event types at runtime.
+     */
+    void register(Object receiver, SubscriberMethod[] methods, String key) {
+
+        boolean weak = weakReceivers;
+        ReceiverReference reference = weak ? new ReceiverReference(receiver, this, ReceiverReaper.queue())
+                : new ReceiverReference(receiver);
+        Subscriber[] subscribers = getAllSubscribers(methods, reference, weak, key);
+
+        for (Subscriber subscriber : subscribers) {
+            // fail here rather than on the first post if there is no main thread scheduler
+            if (subscriber.getThreadMode() == ThreadMode.MAIN) {
+                getMainPoster();
+            }
+        }
+
+        boolean inheritance;
+        synchronized (registryLock) {
+            if (dispatchTable.isSubscribed(reference)) {
+                throw new RuntimeException("Subscriber " + receiver.getClass() + " already registered");
+            }
+            // before the table makes them visible to publishers
+            for (Subscriber subscriber : subscribers) {
+                attachFlowablePoster(subscriber);
+                if (fanOutExecutor != null && subscriber.getThreadMode() == ThreadMode.POSTING) {
+                    subscriber.setMailbox(new Mailbox(subscriber, fanOutExecutor, mailboxSize));
+                }
+                if (subscriber.getPacing() != null) {
+                    subscriber.setPacer(new Pacer(subscriber, subscriber.getPacing(), pacedSink, TimerWheel.shared(),
+                            asyncScheduler));
+                }
+                CircuitBreaker.Policy policy = circuitBreakerPolicy;
+                if (policy != null) {
+                    subscriber.setCircuitBreaker(new CircuitBreaker(policy));
+                }
+                subscriber.setFailureHandler(failureHandler);
+                if (metrics != null) {
+                    subscriber.setHandlerMetrics(metrics.handler(subscriber));
+                }
+            }
+            dispatchTable = dispatchTable.withReceiver(reference, subscribers);
+            inheritance = dispatchTable.isEventInheritance();
+        }
+
+        EventBusLogger logger = this.logger;
+        if (logger.isLoggable(Level.FINE)) {
+            for (Subscriber subscriber : subscribers) {
+                logger.log(Level.FINE, "Subscribed " + subscriber.getId());
+            }
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.isSticky()) {
+                for (Object event : stickyEvents.getMatching(subscriber.getEvent(), inheritance)) {
+                    if (subscriber.getKey() == null || subscriber.getKey().equals(((KeyedEvent) event).getKey())) {
+                        post(subscriber, event);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Unsubscribes the receiver from this bus, anything still queued for it is dropped. A
+     * post() that starts after this returns never reaches it; one already running on
+     * another thread may still call its POSTING methods.
+     */
+    public void unregister(@NonNull Object receiver) {
+
+        ReceiverReference reference = new ReceiverReference(receiver);
+        synchronized (registryLock) {
+            // notify and move on
+            if (!dispatchTable.isSubscribed(reference)) {
+                if (logger.isLoggable(Level.WARNING)) {
+                    logger.log(Level.WARNING, "Object " + receiver + " is not subscribed");
+                }
+                return;
+            }
+            remove(reference);
+        }
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "Unsubscribed " + receiver);
+        }
+    }
+
+    public boolean isRegistered(@NonNull Object receiver) {
+        return dispatchTable.isSubscribed(new ReceiverReference(receiver));
+    }
+
+    /**
+     * @return published and delivered counts per event type and call latencies per subscriber
+     * method since the bus was built, or null unless it was built with {@link Builder#metrics(boolean)} on
+     */
+    public MetricsSnapshot getMetrics() {
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * @return receivers this bus unsubscribed so far because they were collected while still
+     * subscribed
+     */
+    public long getReapedReceivers() {
+        return reapedReceivers.get();
+    }
+
+    /**
+     * @return receivers of this class this bus unsubscribed so far because they were collected
+     */
+    public long getReapedReceivers(@NonNull Class<?> receiverClass) {
+        AtomicLong count = reapedByReceiver.get(receiverClass);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Unsubscribes a weak receiver the garbage collector cleared, called by the reaper.
+     */
+    void reap(ReceiverReference reference) {
+        synchronized (registryLock) {
+            // unsubscribed before it was collected
+            if (!dispatchTable.isSubscribed(reference)) {
+                return;
+            }
+            remove(reference);
+        }
+        reapedReceivers.incrementAndGet();
+        increment(reapedByReceiver, reference.getReceiverClass());
+        if (logger.isLoggable(Level.WARNING)) {
+            logger.log(Level.WARNING, "Unsubscribed a collected " + reference.getReceiverClass().getName()
+                    + ", it was never unsubscribed");
+        }
+    }
+
+    /**
+     * Call holding the registry lock.
+     */
+    private void remove(ReceiverReference reference) {
+        // drop anything still queued for MAIN, BACKGROUND or ASYNC delivery
+        for (Subscriber subscriber : dispatchTable.getReceiverSubscribers(reference)) {
+            subscriber.deactivate();
+        }
+        dispatchTable = dispatchTable.withoutReceiver(reference);
+    }
+
+    /**
+     * Delivers the message to this bus's receivers, see {@link #publish(Object)}.
+     *
+     * @throws MissingBackpressureException if a subscriber with {@link OverflowStrategy#ERROR}
+     * had no room for the message, after it was delivered to everyone else
+     */
+    public void post(@NonNull Object message) {
+        // a handler posting on a consumer thread delivers right here, the ring may be full
+        if (ringDispatcher != null && !ringDispatcher.isConsumerThread()) {
+            ringDispatcher.publish(message);
+            return;
+        }
+        // one volatile read, then an array that is never modified, nothing allocated
+        MissingBackpressureException overflow = dispatch(getSubscribers(dispatchTable, message), message, null);
+        if (overflow != null) {
+            throw overflow;
+        }
+    }
+
+    /**
+     * Posts several messages in order. The subscriber table is read once for the whole
+     * batch and each run of same type messages looks up its subscribers once, cheaper than
+     * a post() per message for bulk producers.
+     *
+     * @throws MissingBackpressureException if a subscriber with {@link OverflowStrategy#ERROR}
+     * had no room for a message, after the whole batch was delivered
+     */
+    public void postAll(@NonNull Collection<?> messages) {
+        if (ringDispatcher != null && !ringDispatcher.isConsumerThread()) {
+            for (Object message : messages) {
+                ringDispatcher.publish(message);
+            }
+            return;
+        }
+        DispatchTable table = dispatchTable;
+        Class<?> type = null;
+        Subscriber[] subscribers = null;
+        MissingBackpressureException overflow = null;
+
+        for (Object message : messages) {
+            if (message instanceof KeyedEvent) {
+                // routed by key, so looked up one by one
+                overflow = dispatch(getSubscribers(table, message), message, overflow);
+                continue;
+            }
+            if (message.getClass() != type) {
+                type = message.getClass();
+                subscribers = table.getSubscribers(type);
+            }
+            overflow = dispatch(subscribers, message, overflow);
+        }
+        if (overflow != null) {
+            throw overflow;
+        }
+    }
+
+    /**
+     * Posts a keyed message at the end of the current coalescing window, unless a newer
+     * message of the same class and key replaces it first. Receivers get one update per
+     * key and window instead of every intermediate one, delivered from the coalescing
+     * scheduler's thread.
+     */
+    public void postCoalesced(@NonNull KeyedEvent message) {
+        coalescer.add(message);
+    }
+
+    /**
+     * Posts a message and keeps it as this bus's sticky event of its type, see
+     * {@link #publishSticky(Object)}.
+     */
+    public void postSticky(@NonNull Object message) {
+        stickyEvents.put(message);
+        post(message);
+    }
+
+    /**
+     * @return this bus's sticky event of this type, or null if there is none or it has expired
+     */
+    public <T> T getStickyEvent(@NonNull Class<T> eventType) {
+        return stickyEvents.get(eventType);
+    }
+
+    /**
+     * @return the removed sticky event of this type, or null if there was none
+     */
+    public <T> T removeStickyEvent(@NonNull Class<T> eventType) {
+        return stickyEvents.remove(eventType);
+    }
+
+    public void removeAllStickyEvents() {
+        stickyEvents.clear();
+    }
+
+    @NonNull
+    public StickyCacheStats getStickyEventStats() {
+        return stickyEvents.getStats();
+    }
+
+    /**
+     * @return events this bus dropped so far because a subscriber's buffer was full
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * @return events this bus dropped so far for subscribers of this event type
+     */
+    public long getDroppedEvents(@NonNull Class<?> eventType) {
+        AtomicLong count = droppedByEvent.get(eventType);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Publishes a request on this bus and waits for one reply, see
+     * {@link #request(Object, Class, long, TimeUnit)}.
+     */
+    @NonNull
+    public <T> Single<T> postRequest(@NonNull final Object request, @NonNull final Class<T> replyType,
+                                     final long timeout, @NonNull final TimeUnit unit) {
+        return Single.create(new SingleOnSubscribe<T>() {
+            @Override
+            public void subscribe(SingleEmitter<T> emitter) {
+                final PendingRequest.Key key = new PendingRequest.Key(request);
+                final PendingRequest<T> pending = new PendingRequest<>(replyType, emitter);
+                if (pendingRequests.putIfAbsent(key, pending) != null) {
+                    emitter.onError(new IllegalStateException("Request " + request + " is already pending"));
+                    return;
+                }
+                // every completion path removes the entry first, so only one of them wins
+                pending.timeout = TimerWheel.shared().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (pendingRequests.remove(key, pending)) {
+                            // off the timer thread, a slow onError would hold up every timeout
+                            asyncScheduler.scheduleDirect(new Runnable() {
+                                @Override
+                                public void run() {
+                                    pending.fail(new TimeoutException("No reply to " + request + " within "
+                                            + timeout + " " + unit));
+                                }
+                            });
+                        }
+                    }
+                }, timeout, unit);
+                emitter.setCancellable(new Cancellable() {
+                    @Override
+                    public void cancel() {
+                        if (pendingRequests.remove(key, pending)) {
+                            pending.timeout.cancel();
+                        }
+                    }
+                });
+
+                if (getSubscribers(dispatchTable, request).length == 0) {
+                    if (pendingRequests.remove(key, pending)) {
+                        pending.timeout.cancel();
+                        pending.fail(new NoSuchElementException("Nobody subscribes to " + request.getClass().getName()));
+                    }
+                    return;
+                }
+                try {
+                    post(request);
+                }
+                catch (RuntimeException e) {
+                    if (pendingRequests.remove(key, pending)) {
+                        pending.timeout.cancel();
+                        pending.fail(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Completes the pending request for this request event on this bus, see
+     * {@link #reply(Object, Object)}.
+     */
+    public boolean postReply(@NonNull Object request, @NonNull Object reply) {
+        PendingRequest.Key key = new PendingRequest.Key(request);
+        PendingRequest<?> pending = pendingRequests.get(key);
+        if (pending == null) {
+            return false;
+        }
+        if (!pending.accepts(reply)) {
+            throw new IllegalArgumentException("Reply " + reply + " to " + request + " is of the wrong type");
+        }
+        if (!pendingRequests.remove(key, pending)) {
+            return false;
+        }
+        pending.complete(reply);
+        return true;
+    }
+
+    /**
+     * Stops this bus's ring buffer consumers once they have delivered what was already
+     * posted; posting afterwards throws IllegalStateException. Also stops exporting metrics
+     * and shuts down the ForkJoinPool {@link Builder#parallelFanOut(int, int)} created.
+     * Does nothing else for buses that dispatch on the posting thread.
+     */
+    public void shutdown() {
+        if (ringDispatcher != null) {
+            ringDispatcher.shutdown();
+        }
+        if (ownFanOutPool != null) {
+            ownFanOutPool.shutdown();
+        }
+        if (metricsExport != null) {
+            metricsExport.dispose();
+        }
+    }
+
+    /**
+     * Runs on a ring buffer consumer thread, where nobody can catch an overflow.
+     */
+    private void dispatchFromRing(Object event) {
+        MissingBackpressureException overflow = dispatch(getSubscribers(dispatchTable, event), event, null);
+        if (overflow != null && logger.isLoggable(Level.WARNING)) {
+            logger.log(Level.WARNING, "Dropped " + event, overflow);
+        }
+    }
+
+    /**
+     * Delivers right here rather than through post(), a ring buffer consumer must not wait
+     * on its own ring.
+     */
+    private void postDeadEvent(RateLimiter limiter, Object event) {
+        if (!limiter.tryAcquire()) {
+            suppressedDeadEvents.incrementAndGet();
+            return;
+        }
+        DeadEvent deadEvent = new DeadEvent(this, event, suppressedDeadEvents.getAndSet(0));
+        dispatch(dispatchTable.getSubscribers(DeadEvent.class), deadEvent, null);
+    }
+
+    /**
+     * Publishes the failure as a SubscriberExceptionEvent on the failing subscriber's thread,
+     * or logs it if nobody receives those or the failing method was handling one.
+     */
+    private void handleFailure(Subscriber subscriber, Object event, Throwable throwable, boolean circuitOpened) {
+        EventBusLogger logger = this.logger;
+        if (circuitOpened && logger.isLoggable(Level.WARNING)) {
+            logger.log(Level.WARNING, "Circuit opened for " + subscriber.getId() + " after repeated failures");
+        }
+        Subscriber[] handlers = event instanceof SubscriberExceptionEvent ? null
+                : dispatchTable.getSubscribers(SubscriberExceptionEvent.class);
+        if (handlers != null && handlers.length > 0) {
+            dispatch(handlers, new SubscriberExceptionEvent(this, throwable, event, subscriber.getReceiver(),
+                    subscriber.getId(), circuitOpened), null);
+            return;
+        }
+        if (!logger.isLoggable(Level.WARNING)) {
+            return;
+        }
+        if (failureLogLimiter.tryAcquire()) {
+            long suppressed = suppressedFailureLogs.getAndSet(0);
+            logger.log(Level.WARNING, subscriber.getId() + " failed handling " + event
+                    + (suppressed > 0 ? ", " + suppressed + " more failures not logged" : ""), throwable);
+        }
+        else {
+            suppressedFailureLogs.incrementAndGet();
+        }
+    }
+
+    /**
+     * Posts the event to every subscriber in priority order, even after one of them
+     * overflows, until a POSTING subscriber cancels it.
+     *
+     * @return overflow, or the first overflow of these subscribers if it was null
+     */
+    private MissingBackpressureException dispatch(Subscriber[] subscribers, Object event,
+                                                  MissingBackpressureException overflow) {
+        if (metrics != null) {
+            metrics.onPublished(event.getClass());
+        }
+        if (subscribers.length == 0) {
+            // nothing registered or cached for the type, unless dead events are on
+            RateLimiter limiter = deadEventLimiter;
+            if (limiter != null && !(event instanceof DeadEvent)) {
+                postDeadEvent(limiter, event);
+            }
+            return overflow;
+        }
+        // large fan-outs hand POSTING subscribers to their mailboxes
+        boolean parallel = fanOutExecutor != null && subscribers.length >= fanOutThreshold;
+        // saved and restored around the loop, a subscriber may post again
+        PostingState state = postingState.get();
+        Object outerEvent = state.event;
+        Subscriber outerSubscriber = state.subscriber;
+        boolean outerCanceled = state.canceled;
+        state.event = event;
+        state.canceled = false;
+        try {
+            for (Subscriber subscriber : subscribers) {
+                state.subscriber = subscriber;
+                try {
+                    post(subscriber, event, parallel);
+                }
+                catch (MissingBackpressureException mbe) {
+                    if (overflow == null) {
+                        overflow = mbe;
+                    }
+                }
+                if (state.canceled) {
+                    break;
+                }
+            }
+        }
+        finally {
+            state.event = outerEvent;
+            state.subscriber = outerSubscriber;
+            state.canceled = outerCanceled;
+        }
+        return overflow;
+    }
+
+    private void post(Subscriber subscriber, Object event) {
+        post(subscriber, event, false);
+    }
+
+    /**
+     * @param parallel whether a POSTING subscriber with a mailbox should be handed the event
+     *                 there rather than called on this thread
+     */
+    private void post(Subscriber subscriber, Object event, boolean parallel) {
+        Pacer pacer = subscriber.getPacer();
+        if (pacer != null) {
+            // comes back through deliver() if and when the pacing lets it through
+            pacer.offer(event);
+            return;
+        }
+        deliver(subscriber, event, parallel);
+    }
+
+    private void deliver(Subscriber subscriber, Object event, boolean parallel) {
+        FlowablePoster flowablePoster = subscriber.getFlowablePoster();
+        if (flowablePoster != null) {
+            flowablePoster.enqueue(event);
+            return;
+        }
+        switch (subscriber.getThreadMode()) {
+            case MAIN:
+                getMainPoster().enqueue(subscriber, event);
+                break;
+            case BACKGROUND:
+                getBackgroundPoster().enqueue(subscriber, event);
+                break;
+            case ASYNC:
+                asyncScheduler.scheduleDirect(new PendingPost(subscriber, event));
+                break;
+            default:
+                Mailbox mailbox = subscriber.getMailbox();
+                // behind what is still queued, or it would overtake it
+                if (mailbox != null && (parallel || mailbox.isBusy())) {
+                    mailbox.enqueue(event);
+                }
+                else {
+                    subscriber.invoke(event);
+                }
+                break;
+        }
+    }
+
+    private ScheduledPoster getMainPoster() {
+        ScheduledPoster poster = mainPoster;
+        if (poster == null) {
+            synchronized (posterLock) {
+                poster = mainPoster;
+                if (poster == null) {
+                    poster = mainPoster = new ScheduledPoster(getMainThreadScheduler());
+                }
+            }
+        }
+        return poster;
+    }
+
+    private ScheduledPoster getBackgroundPoster() {
+        ScheduledPoster poster = backgroundPoster;
+        if (poster == null) {
+            synchronized (posterLock) {
+                poster = backgroundPoster;
+                if (poster == null) {
+                    poster = backgroundPoster = new ScheduledPoster(backgroundScheduler);
+                }
+            }
+        }
+        return poster;
+    }
+
+    private void replaceMainThreadScheduler(Scheduler scheduler) {
+        synchronized (posterLock) {
+            mainThreadScheduler = scheduler;
+            if (mainPoster != null) {
+                mainPoster.moveTo(scheduler);
+            }
+        }
+    }
+
+    private void replaceBackgroundScheduler(Scheduler scheduler) {
+        synchronized (posterLock) {
+            backgroundScheduler = scheduler;
+            if (backgroundPoster != null) {
+                backgroundPoster.moveTo(scheduler);
+            }
+        }
+    }
+
+    private EventCoalescer createCoalescer(Scheduler scheduler, long window, TimeUnit unit) {
+        return new EventCoalescer(new EventCoalescer.Sink() {
+            @Override
+            public void publishAll(Collection<?> events) {
+                postAll(events);
+            }
+        }, scheduler, window, unit);
+    }
+
+    private Scheduler getMainThreadScheduler() {
+        synchronized (posterLock) {
+            if (mainThreadScheduler == null) {
+                mainThreadScheduler = MainThread.defaultScheduler();
+            }
+            return mainThreadScheduler;
+        }
+    }
+
+    /**
+     * Gives the subscriber its own bounded Flowable if its method or event type is bounded.
+     * MAIN and BACKGROUND subscribers drain it through the same poster as everyone else.
+     * POSTING subscribers are called directly, nothing ever queues for them.
+     */
+    private void attachFlowablePoster(Subscriber subscriber) {
+        ThreadMode threadMode = subscriber.getThreadMode();
+        if (threadMode == ThreadMode.POSTING) {
+            return;
+        }
+        Backpressure backpressure = subscriber.getBackpressure();
+        if (!backpressure.isBounded()) {
+            backpressure = eventBackpressure.get(subscriber.getEvent());
+            if (backpressure == null) {
+                return;
+            }
+        }
+
+        Executor executor;
+        switch (threadMode) {
+            case MAIN:
+                executor = getMainPoster();
+                break;
+            case BACKGROUND:
+                // the shared poster, so bounded and unbounded subscribers take turns on one thread
+                executor = getBackgroundPoster();
+                break;
+            default:
+                executor = asyncExecutor;
+                break;
+        }
+        subscriber.setFlowablePoster(new FlowablePoster(subscriber, executor, backpressure, dropCounter));
+    }
+
+    private static void putBackpressure(Map<Class<?>, Backpressure> backpressures, Class<?> eventType,
+                                        int bufferSize, OverflowStrategy overflow) {
+        if (bufferSize == 0) {
+            backpressures.remove(eventType);
+        }
+        else {
+            backpressures.put(eventType, new Backpressure(bufferSize, overflow));
+        }
+    }
+
+    private static void increment(ConcurrentHashMap<Class<?>, AtomicLong> counts, Class<?> type) {
+        AtomicLong count = counts.get(type);
+        if (count == null) {
+            AtomicLong created = new AtomicLong();
+            count = counts.putIfAbsent(type, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * @return who an event is delivered to, keyed events only reach the subscribers of their key
+     * and the unkeyed ones
+     */
+    private static Subscriber[] getSubscribers(DispatchTable table, Object event) {
+        if (event instanceof KeyedEvent) {
+            String key = ((KeyedEvent) event).getKey();
+            if (key != null) {
+                return table.getSubscribers(event.getClass(), key);
+            }
+        }
+        return table.getSubscribers(event.getClass());
+    }
+
+    /**
+     * Binds the receiver to its class's cached subscriber methods.
+     *
+     * @param key routing key for the keyable methods without a key of their own, or null
+     */
+    private Subscriber[] getAllSubscribers(SubscriberMethod[] methods, ReceiverReference reference, boolean weak,
+                                           String key) {
+
+        Subscriber[] subscribers = new Subscriber[methods.length];
+
+        for (int i = 0; i < methods.length; i++) {
+            SubscriberMethod method = methods[i];
+            String methodKey = method.getKey() == null && method.isKeyable() ? key : method.getKey();
+            subscribers[i] = new Subscriber(reference, weak, method, methodKey);
+        }
+
+        return subscribers;
+    }
+
+    private static final class PostingState {
+        Object event;
+        Subscriber subscriber;
+        boolean canceled;
+    }
+
+    /**
+     * Configures a new bus. Every setting defaults to what the static API starts with.
+     */
+    public static final class Builder {
+
+        private final List<SubscriberIndex> indexes = new ArrayList<>();
+        private InvokerStrategy invokerStrategy;
+        private boolean eventInheritance;
+        private boolean weakReceivers;
+        private EventBusLogger logger = new EventBusLogger.JavaLogger(Logger.getLogger("rxeventbus"));
+        private Scheduler mainThreadScheduler;
+        private Scheduler backgroundScheduler = Schedulers.io();
+        private Scheduler asyncScheduler = Schedulers.io();
+        private final Map<Class<?>, Backpressure> eventBackpressure = new HashMap<>();
+        private int stickyMaxEvents = 64;
+        private long stickyMaxAge;
+        private long coalescingWindow = TimeUnit.MILLISECONDS.toNanos(100);
+        private Scheduler coalescingScheduler = Schedulers.computation();
+        private int deadEventsPerSecond;
+        private int ringBufferSize;
+        private int ringConsumers;
+        private WaitStrategy ringWaitStrategy;
+        private int ringBatchSize;
+        private Executor fanOutExecutor;
+        private int fanOutThreshold;
+        private int mailboxSize;
+        private CircuitBreaker.Policy circuitBreakerPolicy;
+        private boolean metrics;
+        private MetricsExporter metricsExporter;
+        private long metricsExportPeriod;
+
+        private Builder() {
+        }
+
+        /**
+         * @see RxEventBus#addIndex(SubscriberIndex)
+         */
+        @NonNull
+        public Builder addIndex(@NonNull SubscriberIndex index) {
+            indexes.add(index);
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setInvokerStrategy(InvokerStrategy)
+         */
+        @NonNull
+        public Builder invokerStrategy(@NonNull InvokerStrategy strategy) {
+            invokerStrategy = strategy;
+            return this;
+        }
+
+        /**
+         * Dispatches events to subscribers of their superclasses and interfaces too.
+         *
+         * @see RxEventBus#setEventInheritance(boolean)
+         */
+        @NonNull
+        public Builder eventInheritance(boolean inheritance) {
+            eventInheritance = inheritance;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setLogger(EventBusLogger)
+         */
+        @NonNull
+        public Builder logger(@NonNull EventBusLogger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setDeadEvents(int)
+         */
+        @NonNull
+        public Builder deadEvents(int maxPerSecond) {
+            deadEventsPerSecond = maxPerSecond;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setWeakReceivers(boolean)
+         */
+        @NonNull
+        public Builder weakReceivers(boolean weak) {
+            weakReceivers = weak;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setMainThreadScheduler(Scheduler)
+         */
+        @NonNull
+        public Builder mainThreadScheduler(@NonNull Scheduler scheduler) {
+            mainThreadScheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setBackgroundScheduler(Scheduler)
+         */
+        @NonNull
+        public Builder backgroundScheduler(@NonNull Scheduler scheduler) {
+            backgroundScheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setAsyncScheduler(Scheduler)
+         */
+        @NonNull
+        public Builder asyncScheduler(@NonNull Scheduler scheduler) {
+            asyncScheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setBackpressure(Class, int, OverflowStrategy)
+         */
+        @NonNull
+        public Builder backpressure(@NonNull Class<?> eventType, int bufferSize, @NonNull OverflowStrategy overflow) {
+            putBackpressure(eventBackpressure, eventType, bufferSize, overflow);
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setStickyCacheLimits(int, long, TimeUnit)
+         */
+        @NonNull
+        public Builder stickyCacheLimits(int maxEvents, long maxAge, @NonNull TimeUnit unit) {
+            stickyMaxEvents = maxEvents;
+            stickyMaxAge = unit.toNanos(maxAge);
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setCoalescingWindow(long, TimeUnit, Scheduler)
+         */
+        @NonNull
+        public Builder coalescingWindow(long window, @NonNull TimeUnit unit, @NonNull Scheduler scheduler) {
+            coalescingWindow = unit.toNanos(window);
+            coalescingScheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Dispatches through a pre-allocated ring buffer instead of on the posting thread.
+         * post() only claims a slot, waiting while the ring is full, and consumer threads
+         * deliver to subscribers, POSTING ones included. Several consumers may deliver out
+         * of publish order, one keeps it. Stop the consumers with {@link RxEventBus#shutdown()}.
+         *
+         * A handler posting to the bus from a consumer thread doesn't go through the ring:
+         * waiting there for a slot only its own thread could free would never end. Its event
+         * is delivered right away on that thread, as on a bus without a ring, ahead of
+         * events still in the ring.
+         *
+         * @param bufferSize slots in the ring, a power of 2
+         * @param consumers threads draining the ring
+         * @param batchSize sequences a consumer claims at a time, at most bufferSize. Larger
+         *                  batches mean fewer atomic claims but coarser slot reuse
+         * @throws IllegalArgumentException if bufferSize isn't a power of 2, consumers is below 1
+         * or batchSize isn't between 1 and bufferSize
+         */
+        @NonNull
+        public Builder ringBuffer(int bufferSize, int consumers, @NonNull WaitStrategy waitStrategy, int batchSize) {
+            if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+            }
+            if (consumers < 1) {
+                throw new IllegalArgumentException("consumers must be at least 1: " + consumers);
+            }
+            if (batchSize < 1 || batchSize > bufferSize) {
+                throw new IllegalArgumentException("batchSize must be between 1 and bufferSize: " + batchSize);
+            }
+            ringBufferSize = bufferSize;
+            ringConsumers = consumers;
+            ringWaitStrategy = waitStrategy;
+            ringBatchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Delivers events with at least minSubscribers subscribers to their POSTING
+         * subscribers in parallel on a ForkJoinPool of the bus's own, see
+         * {@link #parallelFanOut(int, int, Executor)}. The pool is created by build() and
+         * shut down by {@link RxEventBus#shutdown()}.
+         */
+        @NonNull
+        public Builder parallelFanOut(int minSubscribers, int mailboxSize) {
+            return fanOut(minSubscribers, mailboxSize, null);
+        }
+
+        /**
+         * Delivers events with at least minSubscribers subscribers to their POSTING
+         * subscribers in parallel: each such subscriber gets a mailbox of mailboxSize events,
+         * drained on the executor, so a slow handler only delays itself and a large fan-out
+         * spreads over the executor's threads. post() returns once the event is queued for
+         * everyone, waiting while a mailbox is full.
+         *
+         * A subscriber still handles events one at a time and in the order they were posted,
+         * an event for fewer subscribers queues behind any still in its mailbox. Priorities
+         * only order the queueing, and handlers running in parallel can't cancel delivery.
+         * On Android ForkJoinPool needs API 21.
+         *
+         * @param executor a ForkJoinPool, or any executor running each mailbox's drain; the
+         *                 caller keeps it and shuts it down
+         */
+        @NonNull
+        public Builder parallelFanOut(int minSubscribers, int mailboxSize, @NonNull Executor executor) {
+            return fanOut(minSubscribers, mailboxSize, executor);
+        }
+
+        /**
+         * @param executor null for a pool of the bus's own
+         */
+        private Builder fanOut(int minSubscribers, int mailboxSize, Executor executor) {
+            if (minSubscribers < 1 || mailboxSize < 1) {
+                throw new IllegalArgumentException("minSubscribers and mailboxSize must be at least 1");
+            }
+            fanOutThreshold = minSubscribers;
+            this.mailboxSize = mailboxSize;
+            fanOutExecutor = executor;
+            return this;
+        }
+
+        /**
+         * @see RxEventBus#setCircuitBreaker(int, long, long, TimeUnit)
+         */
+        @NonNull
+        public Builder circuitBreaker(int maxFailures, long window, long openFor, @NonNull TimeUnit unit) {
+            circuitBreakerPolicy = new CircuitBreaker.Policy(maxFailures, window, openFor, unit);
+            return this;
+        }
+
+        /**
+         * Counts events published and handled per event class, and times every subscriber
+         * method call in a histogram, read with {@link RxEventBus#getMetrics()}. Off by
+         * default; an event then costs one null check for it, allocates nothing and never
+         * reads the clock. On, it adds a map lookup and a striped counter add per event, and
+         * two clock reads, a map lookup and a striped counter add per call.
+         */
+        @NonNull
+        public Builder metrics(boolean metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Turns metrics on and hands a snapshot to the exporter every period, until
+         * {@link RxEventBus#shutdown()}. An export that throws is logged as a warning and
+         * the next one still runs.
+         */
+        @NonNull
+        public Builder metricsExporter(@NonNull MetricsExporter exporter, long period, @NonNull TimeUnit unit) {
+            if (period <= 0) {
+                throw new IllegalArgumentException("period must be positive: " + period);
+            }
+            metrics = true;
+            metricsExporter = exporter;
+            metricsExportPeriod = unit.toNanos(period);
+            return this;
+        }
+
+        @NonNull
+        public RxEventBus build() {
+            return new RxEventBus(this);
+        }
+
+        /**
+         * Builds the bus the static methods use. Call it once, before anything uses the
+         * default bus.
+         *
+         * @throws IllegalStateException if the default bus already exists
+         */
+        @NonNull
+        public RxEventBus installDefault() {
+            synchronized (RxEventBus.class) {
+                if (defaultBus != null) {
+                    throw new IllegalStateException("The default RxEventBus already exists, install it before first use");
+                }
+                defaultBus = build();
+                return defaultBus;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package rxeventbus;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+
+/**
+ * Delivers events in order on a single worker of a {@link Scheduler}. Posts queue up while a
+ * drain is scheduled or running, so a burst of events costs one hop to the scheduler rather
+ * than one per event. {@link #moveTo(Scheduler)} carries the queue over to another scheduler.
+ * Bounded subscribers queue their deliveries here too, through {@link #execute(Runnable)}.
+ */
+
+final class ScheduledPoster implements Executor {
+
+    private volatile Scheduler.Worker worker;
+    private final ConcurrentLinkedQueue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    // posts not yet drained, the drain is scheduled when this goes up from 0
+    private final AtomicInteger wip = new AtomicInteger();
+
+    ScheduledPoster(Scheduler scheduler) {
+        this.worker = scheduler.createWorker();
+    }
+
+    void enqueue(Subscriber subscriber, Object event) {
+        execute(new PendingPost(subscriber, event));
+    }
+
+    @Override
+    public void execute(Runnable post) {
+        queue.offer(post);
+        if (wip.getAndIncrement() == 0) {
+            schedule();
+        }
+    }
+
+    /**
+     * Delivers queued and later posts on a worker of the scheduler from now on. A drain
+     * running on the old worker stops after the post in hand and continues on the new one,
+     * so posts keep their order and never run on both at once.
+     */
+    void moveTo(Scheduler scheduler) {
+        Scheduler.Worker previous = worker;
+        worker = scheduler.createWorker();
+        if (wip.get() == 0) {
+            // idle, otherwise the drain disposes it once it sees the new worker
+            previous.dispose();
+        }
+    }
+
+    private void schedule() {
+        final Scheduler.Worker current = worker;
+        current.schedule(new Runnable() {
+            @Override
+            public void run() {
+                drain(current);
+            }
+        });
+    }
+
+    private void drain(Scheduler.Worker current) {
+        int missed = 1;
+        for (;;) {
+            Runnable post;
+            while (worker == current && (post = queue.poll()) != null) {
+                boolean delivered = false;
+                try {
+                    post.run();
+                    delivered = true;
+                }
+                finally {
+                    if (!delivered) {
+                        // an Error is unwinding the drain, still holding wip, a new task
+                        // drains what is left or later posts would never be scheduled
+                        if (worker != current) {
+                            current.dispose();
+                        }
+                        schedule();
+                    }
+                }
+            }
+            if (worker != current) {
+                // still holding wip, the new worker drains what is left
+                current.dispose();
+                schedule();
+                return;
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                if (worker != current) {
+                    // moved between the last check and going idle
+                    current.dispose();
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package rxeventbus;
+
+/**
+ * Snapshot of the sticky event cache, see {@link RxEventBus#getStickyCacheStats()}.
+ */
+
+public final class StickyCacheStats {
+
+    private final int size;
+    private final int maxSize;
+    private final long evictions;
+    private final long expirations;
+
+    StickyCacheStats(int size, int maxSize, long evictions, long expirations) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    /**
+     * @return sticky events currently held, one per event type. This is the cache's measure
+     *         of memory, the events' size in bytes is not tracked
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return event types the cache keeps at most
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return events dropped to stay within the maximum size
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return events dropped for being older than the maximum age
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    @Override
+    public String toString() {
+        return "StickyCacheStats{size=" + size + ", maxSize=" + maxSize + ", evictions=" + evictions
+                + ", expirations=" + expirations + "}";
+    }
+}
@@ -0,0 +1,143 @@
+package rxeventbus;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Last published sticky event of each event type. Holds at most maxEvents events, evicting
+ * the least recently used type first, and optionally drops events older than maxAge.
+ *
+ * The cap is a count of event types, not bytes: each type keeps one event, so the memory
+ * held is at most maxEvents times the largest sticky event, plus what those events reference.
+ */
+
+final class StickyEventCache {
+
+    private static final class StickyEntry {
+        final Object event;
+        final long publishedNanos;
+
+        StickyEntry(Object event, long publishedNanos) {
+            this.event = event;
+            this.publishedNanos = publishedNanos;
+        }
+    }
+
+    // Sticky event by Class (event), least recently used first
+    private final LinkedHashMap<Class<?>, StickyEntry> events = new LinkedHashMap<Class<?>, StickyEntry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Class<?>, StickyEntry> eldest) {
+            if (size() > maxEvents) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private int maxEvents;
+    private long maxAgeNanos;
+    private long evictions;
+    private long expirations;
+
+    StickyEventCache(int maxEvents, long maxAge, TimeUnit unit) {
+        setLimits(maxEvents, maxAge, unit);
+    }
+
+    /**
+     * @param maxAge 0 to keep events until they are replaced, removed or evicted
+     */
+    synchronized void setLimits(int maxEvents, long maxAge, TimeUnit unit) {
+        if (maxEvents < 1) {
+            throw new IllegalArgumentException("maxEvents must be at least 1, was " + maxEvents);
+        }
+        this.maxEvents = maxEvents;
+        this.maxAgeNanos = unit.toNanos(maxAge);
+
+        // shrink right away rather than on the next put
+        Iterator<StickyEntry> eldest = events.values().iterator();
+        while (events.size() > maxEvents) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    synchronized void put(Object event) {
+        events.put(event.getClass(), new StickyEntry(event, System.nanoTime()));
+    }
+
+    synchronized <T> T get(Class<T> eventType) {
+        StickyEntry entry = events.get(eventType);
+        if (entry == null || isExpired(entry, System.nanoTime())) {
+            return null;
+        }
+        return eventType.cast(entry.event);
+    }
+
+    synchronized <T> T remove(Class<T> eventType) {
+        StickyEntry entry = events.remove(eventType);
+        return entry != null ? eventType.cast(entry.event) : null;
+    }
+
+    synchronized void clear() {
+        events.clear();
+    }
+
+    /**
+     * @return the live sticky events a subscriber of eventType receives on registration:
+     * the one of exactly that type, or with inheritance every one assignable to it
+     */
+    synchronized List<Object> getMatching(Class<?> eventType, boolean inheritance) {
+        List<Object> matching = new ArrayList<>();
+        if (events.isEmpty()) {
+            return matching;
+        }
+        long now = System.nanoTime();
+        if (!inheritance) {
+            StickyEntry entry = events.get(eventType);
+            if (entry != null && !isExpired(entry, now)) {
+                matching.add(entry.event);
+            }
+            return matching;
+        }
+        // copy, the access ordered map can't be iterated while expired entries are removed
+        for (StickyEntry entry : new ArrayList<>(events.values())) {
+            if (eventType.isInstance(entry.event) && !isExpired(entry, now)) {
+                matching.add(entry.event);
+            }
+        }
+        return matching;
+    }
+
+    synchronized StickyCacheStats getStats() {
+        purgeExpired(System.nanoTime());
+        return new StickyCacheStats(events.size(), maxEvents, evictions, expirations);
+    }
+
+    private boolean isExpired(StickyEntry entry, long now) {
+        if (maxAgeNanos > 0 && now - entry.publishedNanos > maxAgeNanos) {
+            events.remove(entry.event.getClass());
+            expirations++;
+            return true;
+        }
+        return false;
+    }
+
+    private void purgeExpired(long now) {
+        if (maxAgeNanos == 0) {
+            return;
+        }
+        Iterator<StickyEntry> entries = events.values().iterator();
+        while (entries.hasNext()) {
+            if (now - entries.next().publishedNanos > maxAgeNanos) {
+                entries.remove();
+                expirations++;
+            }
+        }
+    }
+}
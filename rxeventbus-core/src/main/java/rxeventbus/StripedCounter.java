@@ -0,0 +1,43 @@
+package rxeventbus;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter spread over cells a cache line apart, picked by thread id, so threads adding at
+ * the same time mostly touch different lines. A poor man's LongAdder, which Android only
+ * has from API 24. {@link #sum()} is not an atomic snapshot while adds go on.
+ */
+
+final class StripedCounter {
+
+    // longs between cells, 128 bytes also keeps adjacent line prefetching apart
+    private static final int PAD = 16;
+    private static final int CELLS = cells();
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PAD);
+
+    void increment() {
+        add(1);
+    }
+
+    void add(long delta) {
+        int cell = (int) Thread.currentThread().getId() & (CELLS - 1);
+        cells.getAndAdd(cell * PAD, delta);
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < CELLS; i++) {
+            sum += cells.get(i * PAD);
+        }
+        return sum;
+    }
+
+    /**
+     * @return a power of 2 of at least twice the processors, at most 64
+     */
+    private static int cells() {
+        int wanted = Math.min(64, 2 * Runtime.getRuntime().availableProcessors());
+        return Integer.highestOneBit(wanted - 1) << 1;
+    }
+}
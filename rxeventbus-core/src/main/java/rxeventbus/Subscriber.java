@@ -0,0 +1,238 @@
+package rxeventbus;
+
+/**
+ * Created by Gil.Cunningham on 4/28/2017.
+ *
+ * Binds a receiver instance to one of its class's {@link SubscriberMethod}s. The method
+ * metadata is shared, so a Subscriber is only a few references. A weak subscriber reaches
+ * its receiver only through the ReceiverReference and skips events once it is collected.
+ */
+
+public class Subscriber {
+
+    /**
+     * Told when the subscriber method throws, and when its circuit breaker closes again.
+     */
+    interface FailureHandler {
+
+        /**
+         * @param circuitOpened whether this failure opened the circuit breaker
+         */
+        void onFailure(Subscriber subscriber, Object event, Throwable throwable, boolean circuitOpened);
+
+        /**
+         * @param skipped events skipped while the breaker was open
+         */
+        void onCircuitClosed(Subscriber subscriber, long skipped);
+    }
+
+    // null when the receiver is held weakly
+    private final Object receiver;
+    private final ReceiverReference receiverReference;
+    private final SubscriberMethod method;
+    // routing key, null to receive every event of the type
+    private final String key;
+    // cleared on unsubscribe so events still queued for other threads are dropped
+    private volatile boolean active = true;
+    // bounded delivery, set while subscribing when the method or event type asks for it
+    private FlowablePoster flowablePoster;
+    // POSTING delivery off the publishing thread, set while subscribing on a parallel fan-out bus
+    private Mailbox mailbox;
+    // holds back events for debounceMs, throttleMs or sampleMs, set while subscribing
+    private Pacer pacer;
+    // skips the method after repeated failures, set while subscribing when the bus has a policy
+    private CircuitBreaker circuitBreaker;
+    // null only for subscribers made outside a bus, whose failures are then dropped
+    private FailureHandler failureHandler;
+    // times the method, set while subscribing on a bus with metrics on
+    private Metrics.Handler handlerMetrics;
+
+    Subscriber(Object receiver, SubscriberMethod method) {
+        this(new ReceiverReference(receiver), false, method, method.getKey());
+    }
+
+    /**
+     * @param weak whether to keep the receiver only through its reference
+     * @param key routing key, null for every event of the method's type
+     */
+    Subscriber(ReceiverReference receiverReference, boolean weak, SubscriberMethod method, String key) {
+        this.receiver = weak ? null : receiverReference.get();
+        this.receiverReference = receiverReference;
+        this.method = method;
+        this.key = key;
+    }
+
+    /**
+     * @return the receiver, or null if it was held weakly and has been collected
+     */
+    protected Object getReceiver() {
+        return receiver != null ? receiver : receiverReference.get();
+    }
+
+    ReceiverReference getReceiverReference() {
+        return receiverReference;
+    }
+
+    protected String getMethodName() {
+        return method.getMethodName();
+    }
+
+    protected Class getEvent() { return method.getEventType(); }
+
+    ThreadMode getThreadMode() {
+        return method.getThreadMode();
+    }
+
+    boolean isSticky() {
+        return method.isSticky();
+    }
+
+    int getPriority() {
+        return method.getPriority();
+    }
+
+    /**
+     * @return the routing key, or null if every event of the type is received
+     */
+    String getKey() {
+        return key;
+    }
+
+    Backpressure getBackpressure() {
+        return method.getBackpressure();
+    }
+
+    FlowablePoster getFlowablePoster() {
+        return flowablePoster;
+    }
+
+    void setFlowablePoster(FlowablePoster poster) {
+        flowablePoster = poster;
+    }
+
+    Mailbox getMailbox() {
+        return mailbox;
+    }
+
+    void setMailbox(Mailbox mailbox) {
+        this.mailbox = mailbox;
+    }
+
+    Pacing getPacing() {
+        return method.getPacing();
+    }
+
+    Pacer getPacer() {
+        return pacer;
+    }
+
+    void setPacer(Pacer pacer) {
+        this.pacer = pacer;
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    void setCircuitBreaker(CircuitBreaker breaker) {
+        circuitBreaker = breaker;
+    }
+
+    void setFailureHandler(FailureHandler handler) {
+        failureHandler = handler;
+    }
+
+    void setHandlerMetrics(Metrics.Handler metrics) {
+        handlerMetrics = metrics;
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void deactivate() {
+        active = false;
+        if (flowablePoster != null) {
+            flowablePoster.shutdown();
+        }
+        if (mailbox != null) {
+            mailbox.shutdown();
+        }
+        if (pacer != null) {
+            pacer.shutdown();
+        }
+    }
+
+    protected Object invoke(Object param) {
+        Object target = getReceiver();
+        if (target == null) {
+            // collected, the reaper unsubscribes it
+            return null;
+        }
+        CircuitBreaker breaker = circuitBreaker;
+        if (breaker != null && !breaker.allow()) {
+            return null;
+        }
+        Metrics.Handler metrics = handlerMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
+        try {
+            method.getInvoker().invoke(target, param);
+        }
+        catch (Throwable t) {
+            if (t instanceof VirtualMachineError || t instanceof ThreadDeath) {
+                // the VM can't be trusted to go on delivering, unwind the thread instead
+                if (breaker != null) {
+                    breaker.abortProbe();
+                }
+                throw (Error) t;
+            }
+            if (metrics != null) {
+                metrics.onFailed(param, System.nanoTime() - start);
+            }
+            boolean opened = breaker != null && breaker.onFailure();
+            if (failureHandler != null) {
+                failureHandler.onFailure(this, param, t, opened);
+            }
+            return null;
+        }
+        if (metrics != null) {
+            metrics.onInvoked(param, System.nanoTime() - start);
+        }
+        if (breaker != null) {
+            long skipped = breaker.onSuccess();
+            if (skipped >= 0 && failureHandler != null) {
+                failureHandler.onCircuitClosed(this, skipped);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Subscribers are equal when they bind the same receiver instance to the same method.
+     */
+    @Override
+    public boolean equals(Object another) {
+        if (another instanceof Subscriber) {
+            Subscriber other = (Subscriber) another;
+            return receiverReference.equals(other.receiverReference) && method.equals(other.method);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * receiverReference.hashCode() + method.hashCode();
+    }
+
+    public String getId() {
+        String id = getMethodId();
+        return key != null ? id + ":" + key : id;
+    }
+
+    /**
+     * @return receiver class, method and event type, the same for every receiver instance and key
+     */
+    String getMethodId() {
+        return receiverReference.getReceiverClass().getName() + ":" + getMethodName() + ":" + getEvent().getName();
+    }
+}
@@ -0,0 +1,81 @@
+package rxeventbus;
+
+/**
+ * Published when a subscriber method throws, in place of printing the stack trace. Subscribe
+ * to it to report or count failures; with nobody subscribed the bus logs them at WARNING,
+ * rate limited. Delivered on the thread the failing method ran on. A failure handling a
+ * SubscriberExceptionEvent is only logged, never published again.
+ *
+ * VirtualMachineErrors, like OutOfMemoryError and StackOverflowError, and ThreadDeath are
+ * not published and don't count towards a circuit breaker: they propagate to the thread
+ * that called the method.
+ */
+
+public final class SubscriberExceptionEvent {
+
+    private final RxEventBus bus;
+    private final Throwable throwable;
+    private final Object causingEvent;
+    private final Object causingReceiver;
+    private final String subscriberId;
+    private final boolean circuitOpened;
+
+    SubscriberExceptionEvent(RxEventBus bus, Throwable throwable, Object causingEvent, Object causingReceiver,
+                             String subscriberId, boolean circuitOpened) {
+        this.bus = bus;
+        this.throwable = throwable;
+        this.causingEvent = causingEvent;
+        this.causingReceiver = causingReceiver;
+        this.subscriberId = subscriberId;
+        this.circuitOpened = circuitOpened;
+    }
+
+    /**
+     * @return the bus the event was published on
+     */
+    public RxEventBus getBus() {
+        return bus;
+    }
+
+    /**
+     * @return what the subscriber method threw
+     */
+    public Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * @return the event the subscriber method was handling
+     */
+    public Object getCausingEvent() {
+        return causingEvent;
+    }
+
+    /**
+     * @return the receiver whose method threw, or null if it was held weakly and has been collected since
+     */
+    public Object getCausingReceiver() {
+        return causingReceiver;
+    }
+
+    /**
+     * @return receiver class, method and event type of the subscriber, as in the bus's log messages
+     */
+    public String getSubscriberId() {
+        return subscriberId;
+    }
+
+    /**
+     * @return whether this failure opened the subscriber's circuit breaker, so it is skipped
+     *         for a while, see {@link RxEventBus.Builder#circuitBreaker(int, long, long, java.util.concurrent.TimeUnit)}
+     */
+    public boolean isCircuitOpened() {
+        return circuitOpened;
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriberExceptionEvent{subscriber=" + subscriberId + ", throwable=" + throwable
+                + ", causingEvent=" + causingEvent + "}";
+    }
+}
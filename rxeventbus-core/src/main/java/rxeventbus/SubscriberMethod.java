@@ -0,0 +1,96 @@
+package rxeventbus;
+
+/**
+ * Validated @Subscribe method of a receiver class. Found once per class by
+ * {@link SubscriberMethodFinder} and shared by every {@link Subscriber} bound to an
+ * instance of that class.
+ */
+
+final class SubscriberMethod {
+
+    private final String methodName;
+    private final Class<?> eventType;
+    private final EventInvoker invoker;
+    private final ThreadMode threadMode;
+    private final boolean sticky;
+    private final Backpressure backpressure;
+    private final int priority;
+    // routing key, null for every event of the type
+    private final String key;
+    // time-based rate limit, null for every event
+    private final Pacing pacing;
+
+    SubscriberMethod(String methodName, Class<?> eventType, EventInvoker invoker, ThreadMode threadMode,
+                     boolean sticky, Backpressure backpressure, int priority, String key, Pacing pacing) {
+        this.methodName = methodName;
+        this.eventType = eventType;
+        this.invoker = invoker;
+        this.threadMode = threadMode;
+        this.sticky = sticky;
+        this.backpressure = backpressure;
+        this.priority = priority;
+        this.key = key;
+        this.pacing = pacing;
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    Class<?> getEventType() {
+        return eventType;
+    }
+
+    EventInvoker getInvoker() {
+        return invoker;
+    }
+
+    ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    boolean isSticky() {
+        return sticky;
+    }
+
+    Backpressure getBackpressure() {
+        return backpressure;
+    }
+
+    int getPriority() {
+        return priority;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    Pacing getPacing() {
+        return pacing;
+    }
+
+    /**
+     * @return whether events of this method's type can carry a routing key
+     */
+    boolean isKeyable() {
+        return KeyedEvent.class.isAssignableFrom(eventType);
+    }
+
+    /**
+     * Equal when both describe the same method, even if one was found before the cache was
+     * cleared.
+     */
+    @Override
+    public boolean equals(Object another) {
+        if (another instanceof SubscriberMethod) {
+            SubscriberMethod other = (SubscriberMethod) another;
+            return eventType == other.eventType && methodName.equals(other.methodName);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * methodName.hashCode() + eventType.hashCode();
+    }
+}
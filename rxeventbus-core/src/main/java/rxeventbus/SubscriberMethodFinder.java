@@ -0,0 +1,142 @@
+package rxeventbus;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import rxeventbus.annotation.Subscribe;
+import rxeventbus.index.SubscriberIndex;
+import rxeventbus.index.SubscriberInfo;
+import rxeventbus.index.SubscriberMethodInfo;
+
+/**
+ * Finds and validates the @Subscribe methods of a receiver class, first in the registered
+ * {@link SubscriberIndex}es and then with reflection. The result is cached per class, so
+ * only the first receiver of a class pays for the lookup.
+ */
+
+final class SubscriberMethodFinder {
+
+    // Validated methods by receiver class
+    private final ConcurrentHashMap<Class<?>, SubscriberMethod[]> methodCache = new ConcurrentHashMap<>();
+    // Generated subscriber indexes, searched before falling back to reflection
+    private final List<SubscriberIndex> subscriberIndexes = new CopyOnWriteArrayList<>();
+
+    private volatile InvokerStrategy invokerStrategy = InvokerStrategy.fastestSupported();
+
+    void addIndex(SubscriberIndex index) {
+        if (!subscriberIndexes.contains(index)) {
+            subscriberIndexes.add(index);
+        }
+    }
+
+    /**
+     * Changes how reflected methods are called. Cached methods are dropped so receivers
+     * subscribed from now on use the new strategy.
+     */
+    void setInvokerStrategy(InvokerStrategy strategy) {
+        invokerStrategy = strategy;
+        clearCache();
+    }
+
+    SubscriberMethod[] findSubscriberMethods(Class<?> receiverClass) {
+        SubscriberMethod[] methods = methodCache.get(receiverClass);
+        if (methods == null) {
+            SubscriberInfo info = getSubscriberInfo(receiverClass);
+            methods = info != null ? findUsingIndex(info) : findUsingReflection(receiverClass);
+            // racing threads build equivalent arrays, keep whichever landed first
+            SubscriberMethod[] existing = methodCache.putIfAbsent(receiverClass, methods);
+            if (existing != null) {
+                methods = existing;
+            }
+        }
+        return methods;
+    }
+
+    void clearCache() {
+        methodCache.clear();
+    }
+
+    private SubscriberInfo getSubscriberInfo(Class<?> receiverClass) {
+        for (SubscriberIndex index : subscriberIndexes) {
+            SubscriberInfo info = index.getSubscriberInfo(receiverClass);
+            if (info != null) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    private static SubscriberMethod[] findUsingIndex(SubscriberInfo info) {
+        SubscriberMethodInfo[] infos = info.getMethods();
+        SubscriberMethod[] methods = new SubscriberMethod[infos.length];
+        for (int i = 0; i < infos.length; i++) {
+            methods[i] = new SubscriberMethod(infos[i].getMethodName(), infos[i].getEventType(), infos[i].getInvoker(),
+                    infos[i].getThreadMode(), infos[i].isSticky(),
+                    backpressure(infos[i].getBufferSize(), infos[i].getOverflow()), infos[i].getPriority(),
+                    key(infos[i].getKey()),
+                    Pacing.of(infos[i].getDebounceMs(), infos[i].getThrottleMs(), infos[i].getSampleMs()));
+        }
+        return methods;
+    }
+
+    private static String key(String key) {
+        return key.isEmpty() ? null : key;
+    }
+
+    private static Backpressure backpressure(int bufferSize, OverflowStrategy overflow) {
+        return bufferSize == 0 ? Backpressure.NONE : new Backpressure(bufferSize, overflow);
+    }
+
+    private SubscriberMethod[] findUsingReflection(Class<?> receiverClass) {
+
+        List<SubscriberMethod> methods = new ArrayList<>();
+
+        for (Method method : receiverClass.getDeclaredMethods()) {
+            // The compiler sometimes creates synthetic bridge methods as part of the
+            // type erasure process. As of JDK8 these methods now include the same
+            // annotations as the original declarations. They should be ignored.
+            if (method.isBridge()) {
+                continue;
+            }
+            Subscribe subscribe = method.getAnnotation(Subscribe.class);
+            if (subscribe != null) {
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (parameterTypes.length != 1) {
+                    throw new IllegalArgumentException("Method " + method + " has @Subscribe annotation but requires "
+                            + parameterTypes.length + " arguments.  Method requires a single argument.");
+                }
+
+                // interfaces are allowed, they receive events when event inheritance is on
+                Class<?> param = parameterTypes[0];
+
+                if ((method.getModifiers() & Modifier.PUBLIC) == 0) {
+                    throw new IllegalArgumentException("Method " + method + " has @Subscribe annotation on " + param
+                            + " but is not 'public'.");
+                }
+
+                if (!subscribe.key().isEmpty() && !KeyedEvent.class.isAssignableFrom(param)) {
+                    throw new IllegalArgumentException("Method " + method + " has a @Subscribe key but " + param
+                            + " is not a KeyedEvent.");
+                }
+
+                Pacing pacing;
+                try {
+                    pacing = Pacing.of(subscribe.debounceMs(), subscribe.throttleMs(), subscribe.sampleMs());
+                }
+                catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Method " + method + ": " + e.getMessage());
+                }
+
+                methods.add(new SubscriberMethod(method.getName(), param, invokerStrategy.createOrFallback(method),
+                        subscribe.threadMode(), subscribe.sticky(), backpressure(subscribe.bufferSize(), subscribe.overflow()),
+                        subscribe.priority(), key(subscribe.key()), pacing));
+            }
+        }
+
+        return methods.toArray(new SubscriberMethod[methods.size()]);
+    }
+}
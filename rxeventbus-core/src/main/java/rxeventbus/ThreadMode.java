@@ -0,0 +1,33 @@
+package rxeventbus;
+
+/**
+ * Thread a @Subscribe method is called on.
+ */
+
+public enum ThreadMode {
+
+    /**
+     * On the publishing thread, before publish() returns. The default.
+     */
+    POSTING,
+
+    /**
+     * On the main thread scheduler. Events published in a burst are delivered in a single
+     * hop, in order.
+     */
+    MAIN,
+
+    /**
+     * On one background thread shared by all BACKGROUND subscribers, in order. Keeps slow
+     * handlers off the publishing thread. A bounded subscriber's events wait in its buffer
+     * while it falls behind, and join the shared queue one at a time.
+     */
+    BACKGROUND,
+
+    /**
+     * On the async scheduler's thread pool, every delivery separately. Deliveries may run
+     * concurrently and out of order. With {@link VirtualThreads#scheduler()} each delivery
+     * runs on a virtual thread of its own.
+     */
+    ASYNC
+}
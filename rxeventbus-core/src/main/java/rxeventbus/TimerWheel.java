@@ -0,0 +1,237 @@
+package rxeventbus;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timer wheel: one daemon thread advances a ring of buckets every tick and runs the
+ * tasks due in the current bucket. Scheduling and cancelling are O(1) and only touch a
+ * lock-free queue, so tens of thousands of pending timeouts cost one small node each.
+ * Tasks run on the wheel thread, late by up to one tick, and must be short.
+ *
+ * {@link #shared()} is used for request timeouts and time-based delivery.
+ */
+
+final class TimerWheel {
+
+    private static final TimerWheel SHARED = new TimerWheel(10, TimeUnit.MILLISECONDS, 512);
+
+    private final long tickNanos;
+    private final Bucket[] buckets;
+    private final int mask;
+    // handed over to the wheel thread, which alone touches the buckets
+    private final ConcurrentLinkedQueue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+    private long tick;
+    private Thread thread;
+    private volatile boolean stopped;
+
+    /**
+     * @param wheelSize buckets, a power of 2
+     */
+    TimerWheel(long tickDuration, TimeUnit unit, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of 2: " + wheelSize);
+        }
+        tickNanos = unit.toNanos(tickDuration);
+        buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+        mask = wheelSize - 1;
+    }
+
+    static TimerWheel shared() {
+        return SHARED;
+    }
+
+    /**
+     * Runs the task on the wheel thread once the delay has passed, unless cancelled first.
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startTime + unit.toNanos(delay));
+        added.offer(timeout);
+        return timeout;
+    }
+
+    private synchronized void start() {
+        if (thread == null) {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "RxEventBus-timer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Ends the wheel thread, pending timeouts never run. Only for wheels other than the shared one.
+     */
+    synchronized void stop() throws InterruptedException {
+        stopped = true;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+    }
+
+    private void work() {
+        while (!stopped) {
+            long deadline = tickNanos * (tick + 1);
+            long sleep;
+            while ((sleep = deadline - (System.nanoTime() - startTime)) > 0) {
+                if (stopped) {
+                    return;
+                }
+                LockSupport.parkNanos(this, sleep);
+            }
+            removeCancelled();
+            addPending();
+            buckets[(int) tick & mask].expire(deadline);
+            tick++;
+        }
+    }
+
+    private void addPending() {
+        Timeout timeout;
+        while ((timeout = added.poll()) != null) {
+            if (timeout.state.get() == Timeout.CANCELLED) {
+                continue;
+            }
+            // never into the past, a late task runs on this tick
+            long due = Math.max(tick, timeout.deadline / tickNanos);
+            timeout.remainingRounds = (due - tick) / buckets.length;
+            buckets[(int) due & mask].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * A scheduled task, cancel() it once it is no longer needed.
+     */
+    static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // owned by the wheel thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(TimerWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return false if the task already ran or was cancelled
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.cancelled.offer(this);
+            return true;
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts hashed to one slot of the wheel.
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            }
+            else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            }
+            else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            else {
+                tail = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.next = null;
+            timeout.previous = null;
+        }
+
+        void expire(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                        run(timeout.task);
+                    }
+                }
+                else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        /**
+         * Runs a task, reporting whatever it throws to the thread's uncaught exception
+         * handler. Errors included: the wheel thread is shared by every request timeout,
+         * pacer and journal flush, none of which may stop because one task failed.
+         */
+        private static void run(Runnable task) {
+            try {
+                task.run();
+            }
+            catch (Throwable t) {
+                Thread currentThread = Thread.currentThread();
+                try {
+                    currentThread.getUncaughtExceptionHandler().uncaughtException(currentThread, t);
+                }
+                catch (Throwable ignored) {
+                    // a failing handler must not stop the wheel either
+                }
+            }
+        }
+    }
+}
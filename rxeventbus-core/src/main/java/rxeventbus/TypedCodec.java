@@ -0,0 +1,59 @@
+package rxeventbus;
+
+import java.util.List;
+
+/**
+ * An {@link EventCodec} with the event type it handles and the id the type is stored under,
+ * as registered with {@link MappedEventBridge} and {@link EventJournal}.
+ */
+
+final class TypedCodec {
+
+    final int type;
+    final Class<?> eventType;
+    final EventCodec<Object> codec;
+
+    @SuppressWarnings("unchecked")
+    private TypedCodec(int type, Class<?> eventType, EventCodec<?> codec) {
+        this.type = type;
+        this.eventType = eventType;
+        this.codec = (EventCodec<Object>) codec;
+    }
+
+    /**
+     * @param typeId small and non-negative, unique within codecs like the event type
+     */
+    static void add(List<TypedCodec> codecs, int typeId, Class<?> eventType, EventCodec<?> codec) {
+        if (typeId < 0 || typeId > 0xFFFF) {
+            throw new IllegalArgumentException("typeId must be between 0 and 65535: " + typeId);
+        }
+        for (TypedCodec registered : codecs) {
+            if (registered.type == typeId || registered.eventType == eventType) {
+                throw new IllegalArgumentException("Duplicate codec for " + typeId + " or " + eventType);
+            }
+        }
+        codecs.add(new TypedCodec(typeId, eventType, codec));
+    }
+
+    /**
+     * @return the codecs indexed by type id, for lookups without boxing
+     */
+    static TypedCodec[] byType(List<TypedCodec> codecs) {
+        int size = 0;
+        for (TypedCodec codec : codecs) {
+            size = Math.max(size, codec.type + 1);
+        }
+        TypedCodec[] byType = new TypedCodec[size];
+        for (TypedCodec codec : codecs) {
+            byType[codec.type] = codec;
+        }
+        return byType;
+    }
+
+    /**
+     * @return the codec stored under type, or null if there is none
+     */
+    static TypedCodec get(TypedCodec[] byType, int type) {
+        return type >= 0 && type < byType.length ? byType[type] : null;
+    }
+}
@@ -0,0 +1,54 @@
+package rxeventbus;
+
+import java.util.concurrent.ExecutorService;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * A scheduler starting a virtual thread per task, on JDK 21 and later, for ThreadMode.ASYNC
+ * subscribers that block:
+ *
+ * <b>
+ * RxEventBus.builder().asyncScheduler(VirtualThreads.scheduler()).build();
+ * </b>
+ *
+ * Every ASYNC delivery then gets a thread of its own that costs a few hundred bytes until it
+ * blocks, so thousands of handlers waiting on I/O don't need a platform thread each. The
+ * executor is looked up by name, so the bus still runs on older JVMs and on Android, where
+ * {@link #isAvailable()} is false.
+ */
+
+public final class VirtualThreads {
+
+    private static final Scheduler SCHEDULER = createScheduler();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return SCHEDULER != null;
+    }
+
+    /**
+     * @throws UnsupportedOperationException before JDK 21
+     */
+    public static Scheduler scheduler() {
+        if (SCHEDULER == null) {
+            throw new UnsupportedOperationException("Virtual threads need JDK 21 or later");
+        }
+        return SCHEDULER;
+    }
+
+    private static Scheduler createScheduler() {
+        try {
+            ExecutorService executor = (ExecutorService) Class.forName("java.util.concurrent.Executors")
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            // scheduleDirect() submits each task straight to the executor
+            return Schedulers.from(executor);
+        }
+        catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+}
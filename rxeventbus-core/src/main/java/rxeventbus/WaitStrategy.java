@@ -0,0 +1,65 @@
+package rxeventbus;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How ring buffer threads wait, see {@link RxEventBus.Builder#ringBuffer}: consumers for the
+ * next event, producers for a free slot. Lower latency costs more CPU while idle.
+ */
+
+public enum WaitStrategy {
+
+    /**
+     * Spin without pausing. Lowest latency, burns a core per waiting thread; only with more
+     * cores than producers and consumers.
+     */
+    BUSY_SPIN {
+        @Override
+        int idle(int counter) {
+            return counter + 1;
+        }
+    },
+
+    /**
+     * Spin a little, then Thread.yield() to other runnable threads.
+     */
+    YIELD {
+        @Override
+        int idle(int counter) {
+            if (counter >= SPINS) {
+                Thread.yield();
+                return counter;
+            }
+            return counter + 1;
+        }
+    },
+
+    /**
+     * Spin, yield, then park for the shortest time the OS allows. Near zero CPU while idle,
+     * tens of microseconds of extra latency after an idle spell.
+     */
+    PARK {
+        @Override
+        int idle(int counter) {
+            if (counter >= SPINS + YIELDS) {
+                LockSupport.parkNanos(1);
+                return counter;
+            }
+            if (counter >= SPINS) {
+                Thread.yield();
+            }
+            return counter + 1;
+        }
+    };
+
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+
+    /**
+     * Waits once.
+     *
+     * @param counter 0 on the first wait for a condition, then whatever the last call returned
+     * @return the counter for the next call
+     */
+    abstract int idle(int counter);
+}
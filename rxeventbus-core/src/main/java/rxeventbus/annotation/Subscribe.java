@@ -0,0 +1,70 @@
+package rxeventbus.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import rxeventbus.OverflowStrategy;
+import rxeventbus.ThreadMode;
+
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+
+    /**
+     * Thread the method is called on, see {@link ThreadMode}.
+     */
+    ThreadMode threadMode() default ThreadMode.POSTING;
+
+    /**
+     * Receive the latest event published with RxEventBus.publishSticky() as soon as the
+     * receiver subscribes.
+     */
+    boolean sticky() default false;
+
+    /**
+     * Methods subscribed to the same event are called highest priority first, in
+     * subscription order among equal priorities. A POSTING method may stop lower priority
+     * methods from getting the event with RxEventBus.cancelEventDelivery().
+     */
+    int priority() default 0;
+
+    /**
+     * Receive only {@link rxeventbus.KeyedEvent}s whose getKey() equals this, found through
+     * a hash index rather than by calling every method of the event type. Empty, the
+     * default, receives every event of the type, unless the receiver was subscribed with a
+     * key of its own.
+     */
+    String key() default "";
+
+    /**
+     * Bounds the events queued for a MAIN, BACKGROUND or ASYNC method, delivering them
+     * through a backpressured Flowable. 0, the default, queues without limit unless
+     * RxEventBus.setBackpressure() bounds the event type.
+     */
+    int bufferSize() default 0;
+
+    /**
+     * What happens to events once bufferSize events are queued.
+     */
+    OverflowStrategy overflow() default OverflowStrategy.LATEST;
+
+    /**
+     * Receive only the latest event once none followed for this many milliseconds. At most
+     * one of debounceMs, throttleMs and sampleMs may be set; events they hold back are
+     * delivered from the bus's async scheduler, where POSTING methods then run.
+     */
+    long debounceMs() default 0;
+
+    /**
+     * Receive the first event at once, then at most the latest event per this many
+     * milliseconds.
+     */
+    long throttleMs() default 0;
+
+    /**
+     * Receive the latest event every this many milliseconds, if a new one came.
+     */
+    long sampleMs() default 0;
+}
@@ -0,0 +1,21 @@
+package rxeventbus.index;
+
+/**
+ * Build time lookup of @Subscribe methods, generated by the rxeventbus-compiler annotation
+ * processor. Register the generated class once, before the first subscribe:
+ *
+ * <b>
+ * RxEventBus.addIndex(new MyEventBusIndex());
+ * </b>
+ *
+ * Receiver classes missing from every registered index are scanned with reflection.
+ */
+
+public interface SubscriberIndex {
+
+    /**
+     * @return the subscriber methods declared by receiverClass, or null if this index
+     * doesn't know the class
+     */
+    SubscriberInfo getSubscriberInfo(Class<?> receiverClass);
+}
@@ -0,0 +1,24 @@
+package rxeventbus.index;
+
+/**
+ * The @Subscribe methods declared by one receiver class.
+ */
+
+public final class SubscriberInfo {
+
+    private final Class<?> receiverClass;
+    private final SubscriberMethodInfo[] methods;
+
+    public SubscriberInfo(Class<?> receiverClass, SubscriberMethodInfo[] methods) {
+        this.receiverClass = receiverClass;
+        this.methods = methods;
+    }
+
+    public Class<?> getReceiverClass() {
+        return receiverClass;
+    }
+
+    public SubscriberMethodInfo[] getMethods() {
+        return methods;
+    }
+}
@@ -0,0 +1,94 @@
+package rxeventbus.index;
+
+import rxeventbus.EventInvoker;
+import rxeventbus.OverflowStrategy;
+import rxeventbus.ThreadMode;
+
+/**
+ * A single @Subscribe method: its name, the event type it takes, a typed invoker and the
+ * attributes of its annotation.
+ */
+
+public final class SubscriberMethodInfo {
+
+    private final String methodName;
+    private final Class<?> eventType;
+    private final EventInvoker invoker;
+    private final ThreadMode threadMode;
+    private final boolean sticky;
+    private final int bufferSize;
+    private final OverflowStrategy overflow;
+    private final int priority;
+    private final String key;
+    private final long debounceMs;
+    private final long throttleMs;
+    private final long sampleMs;
+
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, EventInvoker invoker, ThreadMode threadMode,
+                                boolean sticky, int bufferSize, OverflowStrategy overflow, int priority, String key,
+                                long debounceMs, long throttleMs, long sampleMs) {
+        this.methodName = methodName;
+        this.eventType = eventType;
+        this.invoker = invoker;
+        this.threadMode = threadMode;
+        this.sticky = sticky;
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+        this.priority = priority;
+        this.key = key;
+        this.debounceMs = debounceMs;
+        this.throttleMs = throttleMs;
+        this.sampleMs = sampleMs;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public Class<?> getEventType() {
+        return eventType;
+    }
+
+    public EventInvoker getInvoker() {
+        return invoker;
+    }
+
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    public boolean isSticky() {
+        return sticky;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public OverflowStrategy getOverflow() {
+        return overflow;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @return the routing key, empty for every event of the type
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public long getDebounceMs() {
+        return debounceMs;
+    }
+
+    public long getThrottleMs() {
+        return throttleMs;
+    }
+
+    public long getSampleMs() {
+        return sampleMs;
+    }
+}
@@ -0,0 +1,335 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Scheduler;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.schedulers.Schedulers;
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A bounded subscriber busy with its first event fills its buffer of four, and each
+ * OverflowStrategy then decides what happens to the rest of a burst of ten. Bounded
+ * BACKGROUND subscribers share the background thread with unbounded ones.
+ */
+public class BackpressureTest {
+
+    private static final int BUFFER_SIZE = 4;
+    private static final int EVENTS = 10;
+
+    public static class Event {
+        final int sequence;
+
+        Event(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    public static class Receiver {
+        final List<Integer> received = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        void handle(Event event) throws InterruptedException {
+            started.countDown();
+            release.await();
+            synchronized (this) {
+                received.add(event.sequence);
+            }
+        }
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Event event) throws InterruptedException {
+            handle(event);
+        }
+
+        List<Integer> awaitReceived(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            for (;;) {
+                synchronized (this) {
+                    if (received.size() >= count || System.nanoTime() > deadline) {
+                        return new ArrayList<>(received);
+                    }
+                }
+                Thread.sleep(5);
+            }
+        }
+    }
+
+    public static class AnnotatedReceiver extends Receiver {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, bufferSize = BUFFER_SIZE, overflow = OverflowStrategy.DROP)
+        public void onEvent(Event event) throws InterruptedException {
+            handle(event);
+        }
+    }
+
+    /**
+     * Counts handlers running at once across every receiver sharing it.
+     */
+    public static class Overlap {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger most = new AtomicInteger();
+        final CountDownLatch done;
+
+        Overlap(int deliveries) {
+            done = new CountDownLatch(deliveries);
+        }
+
+        void handle() throws InterruptedException {
+            int now = running.incrementAndGet();
+            if (now > most.get()) {
+                most.set(now);
+            }
+            Thread.sleep(2);
+            running.decrementAndGet();
+            done.countDown();
+        }
+    }
+
+    public static class BoundedBackground {
+        final Overlap overlap;
+
+        BoundedBackground(Overlap overlap) {
+            this.overlap = overlap;
+        }
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, bufferSize = EVENTS, overflow = OverflowStrategy.BLOCK)
+        public void onEvent(Event event) throws InterruptedException {
+            overlap.handle();
+        }
+    }
+
+    public static class UnboundedBackground {
+        final Overlap overlap;
+
+        UnboundedBackground(Overlap overlap) {
+            this.overlap = overlap;
+        }
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Event event) throws InterruptedException {
+            overlap.handle();
+        }
+    }
+
+    public static class ThreadRecorder {
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch done = new CountDownLatch(EVENTS);
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, bufferSize = EVENTS, overflow = OverflowStrategy.BLOCK)
+        public void onEvent(Event event) {
+            received.add(event.sequence);
+            threads.add(Thread.currentThread().getName());
+            done.countDown();
+        }
+    }
+
+    private static ExecutorService executor(final String name, int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    private static RxEventBus bus(OverflowStrategy overflow) {
+        return RxEventBus.builder().backpressure(Event.class, BUFFER_SIZE, overflow).build();
+    }
+
+    /**
+     * Posts the first event and waits until the receiver is stuck handling it.
+     */
+    private static void block(RxEventBus bus, Receiver receiver) throws InterruptedException {
+        bus.register(receiver);
+        bus.post(new Event(0));
+        assertTrue(receiver.started.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dropKeepsBufferedEvents() throws Exception {
+        RxEventBus bus = bus(OverflowStrategy.DROP);
+        Receiver receiver = new Receiver();
+        block(bus, receiver);
+        for (int i = 1; i < EVENTS; i++) {
+            bus.post(new Event(i));
+        }
+        receiver.release.countDown();
+
+        // the event being handled still takes its place in the buffer
+        assertEquals(Arrays.asList(0, 1, 2, 3), receiver.awaitReceived(4));
+        assertEquals(6, bus.getDroppedEvents());
+        assertEquals(6, bus.getDroppedEvents(Event.class));
+    }
+
+    @Test
+    public void latestKeepsNewestEvents() throws Exception {
+        RxEventBus bus = bus(OverflowStrategy.LATEST);
+        Receiver receiver = new Receiver();
+        block(bus, receiver);
+        for (int i = 1; i < EVENTS; i++) {
+            bus.post(new Event(i));
+        }
+        receiver.release.countDown();
+
+        assertEquals(Arrays.asList(0, 6, 7, 8, 9), receiver.awaitReceived(5));
+        assertEquals(5, bus.getDroppedEvents());
+    }
+
+    @Test
+    public void errorThrowsFromPost() throws Exception {
+        RxEventBus bus = bus(OverflowStrategy.ERROR);
+        Receiver receiver = new Receiver();
+        block(bus, receiver);
+        int thrown = 0;
+        for (int i = 1; i < EVENTS; i++) {
+            try {
+                bus.post(new Event(i));
+            }
+            catch (MissingBackpressureException expected) {
+                thrown++;
+            }
+        }
+        receiver.release.countDown();
+
+        assertEquals(Arrays.asList(0, 1, 2, 3), receiver.awaitReceived(4));
+        assertEquals(6, thrown);
+        assertEquals(6, bus.getDroppedEvents());
+    }
+
+    @Test
+    public void blockWaitsForRoom() throws Exception {
+        final RxEventBus bus = bus(OverflowStrategy.BLOCK);
+        Receiver receiver = new Receiver();
+        block(bus, receiver);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 1; i < EVENTS; i++) {
+                        bus.post(new Event(i));
+                    }
+                }
+                catch (Throwable t) {
+                    failure.set(t);
+                }
+            }
+        });
+        publisher.start();
+        while (publisher.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        assertEquals(0, receiver.awaitReceived(0).size());
+        receiver.release.countDown();
+        publisher.join();
+
+        assertNull(failure.get());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), receiver.awaitReceived(EVENTS));
+        assertEquals(0, bus.getDroppedEvents());
+    }
+
+    @Test
+    public void annotationBoundsTheSubscriber() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        Receiver receiver = new AnnotatedReceiver();
+        block(bus, receiver);
+        for (int i = 1; i < EVENTS; i++) {
+            bus.post(new Event(i));
+        }
+        receiver.release.countDown();
+
+        assertEquals(Arrays.asList(0, 1, 2, 3), receiver.awaitReceived(4));
+        assertEquals(6, bus.getDroppedEvents());
+    }
+
+    @Test
+    public void boundedAndUnboundedShareTheBackgroundThread() throws Exception {
+        // several threads, but one worker of the scheduler delivers for everyone
+        ExecutorService executor = executor("background", 4);
+        try {
+            RxEventBus bus = RxEventBus.builder().backgroundScheduler(Schedulers.from(executor)).build();
+            Overlap overlap = new Overlap(4 * EVENTS);
+            bus.register(new BoundedBackground(overlap));
+            bus.register(new BoundedBackground(overlap));
+            bus.register(new UnboundedBackground(overlap));
+            bus.register(new UnboundedBackground(overlap));
+            for (int i = 0; i < EVENTS; i++) {
+                bus.post(new Event(i));
+            }
+
+            assertTrue(overlap.done.await(5, TimeUnit.SECONDS));
+            assertEquals(1, overlap.most.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void replacingBackgroundSchedulerMovesBoundedEvents() throws Exception {
+        RxEventBus bus = RxEventBus.getDefault();
+        ExecutorService blockedExecutor = executor("blocked", 1);
+        ExecutorService backgroundExecutor = executor("background", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Scheduler blocked = Schedulers.from(blockedExecutor);
+        blocked.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        RxEventBus.setBackgroundScheduler(blocked);
+        ThreadRecorder receiver = new ThreadRecorder();
+        bus.register(receiver);
+        try {
+            // the first waits behind the blocking task, the rest in the buffer
+            for (int i = 0; i < EVENTS / 2; i++) {
+                bus.post(new Event(i));
+            }
+            RxEventBus.setBackgroundScheduler(Schedulers.from(backgroundExecutor));
+            for (int i = EVENTS / 2; i < EVENTS; i++) {
+                bus.post(new Event(i));
+            }
+            release.countDown();
+
+            assertTrue(receiver.done.await(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), receiver.received);
+            assertEquals(Collections.singleton("background-0"), receiver.threads);
+        }
+        finally {
+            bus.unregister(receiver);
+            RxEventBus.setBackgroundScheduler(Schedulers.io());
+            blockedExecutor.shutdownNow();
+            backgroundExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Buses from the builder share nothing with each other or the default bus and start with the
+ * documented defaults.
+ */
+public class BusInstanceTest {
+
+    public static class Event {
+    }
+
+    public static class Receiver {
+        final List<Object> received = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received.add(event);
+            threads.add(Thread.currentThread());
+        }
+    }
+
+    public static class ObjectReceiver {
+        final List<Object> received = new ArrayList<>();
+
+        @Subscribe
+        public void onObject(Object event) {
+            received.add(event);
+        }
+    }
+
+    @Test
+    public void busesShareNothing() {
+        RxEventBus first = RxEventBus.builder().build();
+        RxEventBus second = RxEventBus.builder().build();
+        Receiver receiver = new Receiver();
+        first.register(receiver);
+
+        second.post(new Event());
+        RxEventBus.getDefault().post(new Event());
+        assertEquals(0, receiver.received.size());
+        assertTrue(first.isRegistered(receiver));
+        assertFalse(second.isRegistered(receiver));
+        assertFalse(RxEventBus.getDefault().isRegistered(receiver));
+
+        Event event = new Event();
+        first.post(event);
+        assertEquals(1, receiver.received.size());
+        assertSame(event, receiver.received.get(0));
+
+        first.postSticky(event);
+        assertSame(event, first.getStickyEvent(Event.class));
+        assertNull(second.getStickyEvent(Event.class));
+        assertNull(RxEventBus.getSticky(Event.class));
+    }
+
+    @Test
+    public void builderDefaults() {
+        RxEventBus bus = RxEventBus.builder().build();
+        Receiver receiver = new Receiver();
+        ObjectReceiver objectReceiver = new ObjectReceiver();
+        bus.register(receiver);
+        bus.register(objectReceiver);
+        bus.post(new Event());
+
+        // POSTING on the posting thread, no event inheritance
+        assertEquals(1, receiver.received.size());
+        assertSame(Thread.currentThread(), receiver.threads.get(0));
+        assertEquals(0, objectReceiver.received.size());
+        // no metrics, nothing dropped
+        assertNull(bus.getMetrics());
+        // sticky cache of 64 event types
+        assertEquals(64, bus.getStickyEventStats().getMaxSize());
+        assertEquals(0, bus.getDroppedEvents());
+        bus.shutdown();
+    }
+
+    @Test
+    public void eventInheritanceWhenAskedFor() {
+        RxEventBus bus = RxEventBus.builder().eventInheritance(true).build();
+        ObjectReceiver objectReceiver = new ObjectReceiver();
+        bus.register(objectReceiver);
+        bus.post(new Event());
+
+        assertEquals(1, objectReceiver.received.size());
+    }
+}
@@ -0,0 +1,251 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.plugins.RxJavaPlugins;
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Failing subscriber methods are published as SubscriberExceptionEvents, and the circuit
+ * breaker skips a method that keeps failing until a probe succeeds.
+ */
+public class CircuitBreakerTest {
+
+    public static class Event {
+    }
+
+    public static class Failing {
+        volatile boolean fail = true;
+        int calls;
+
+        @Subscribe
+        public void onEvent(Event event) {
+            calls++;
+            if (fail) {
+                throw new IllegalStateException("broken");
+            }
+        }
+    }
+
+    public static class Errors {
+        final List<SubscriberExceptionEvent> received = new ArrayList<>();
+
+        @Subscribe
+        public void onError(SubscriberExceptionEvent error) {
+            received.add(error);
+        }
+    }
+
+    public static class FailingErrors {
+        int calls;
+
+        @Subscribe
+        public void onError(SubscriberExceptionEvent error) {
+            calls++;
+            throw new IllegalStateException("broken too");
+        }
+    }
+
+    public static class Overflowing {
+        @Subscribe
+        public void onEvent(Event event) {
+            throw new StackOverflowError();
+        }
+    }
+
+    public static class OverflowingOnce {
+        final CountDownLatch received;
+        private boolean overflowed;
+
+        OverflowingOnce(int events) {
+            received = new CountDownLatch(events);
+        }
+
+        void handle() {
+            if (!overflowed) {
+                overflowed = true;
+                throw new StackOverflowError();
+            }
+            received.countDown();
+        }
+    }
+
+    public static class BackgroundOverflowingOnce extends OverflowingOnce {
+        BackgroundOverflowingOnce(int events) {
+            super(events);
+        }
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Event event) {
+            handle();
+        }
+    }
+
+    public static class PostingOverflowingOnce extends OverflowingOnce {
+        PostingOverflowingOnce(int events) {
+            super(events);
+        }
+
+        @Subscribe
+        public void onEvent(Event event) {
+            handle();
+        }
+    }
+
+    public static class BackgroundCounter {
+        final CountDownLatch received;
+
+        BackgroundCounter(int events) {
+            received = new CountDownLatch(events);
+        }
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Event event) {
+            received.countDown();
+        }
+    }
+
+    @Test
+    public void failuresArePublished() {
+        RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE).build();
+        Failing failing = new Failing();
+        Errors errors = new Errors();
+        FailingErrors failingErrors = new FailingErrors();
+        bus.register(failing);
+        bus.register(errors);
+        bus.register(failingErrors);
+
+        Event event = new Event();
+        bus.post(event);
+
+        assertEquals(1, errors.received.size());
+        SubscriberExceptionEvent error = errors.received.get(0);
+        assertSame(bus, error.getBus());
+        assertSame(event, error.getCausingEvent());
+        assertSame(failing, error.getCausingReceiver());
+        assertTrue(error.getThrowable() instanceof IllegalStateException);
+        assertFalse(error.isCircuitOpened());
+        // its own failure is not published again
+        assertEquals(1, failingErrors.calls);
+    }
+
+    @Test
+    public void breakerSkipsUntilProbeSucceeds() throws Exception {
+        RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE)
+                .circuitBreaker(3, 1000, 200, TimeUnit.MILLISECONDS)
+                .build();
+        Failing failing = new Failing();
+        Errors errors = new Errors();
+        bus.register(failing);
+        bus.register(errors);
+
+        for (int i = 0; i < 10; i++) {
+            bus.post(new Event());
+        }
+        assertEquals(3, failing.calls);
+        assertEquals(3, errors.received.size());
+        assertTrue(errors.received.get(2).isCircuitOpened());
+
+        // the probe fails, open again
+        Thread.sleep(250);
+        bus.post(new Event());
+        bus.post(new Event());
+        assertEquals(4, failing.calls);
+        assertTrue(errors.received.get(3).isCircuitOpened());
+
+        // the probe succeeds, closed
+        failing.fail = false;
+        Thread.sleep(250);
+        for (int i = 0; i < 5; i++) {
+            bus.post(new Event());
+        }
+        assertEquals(9, failing.calls);
+        assertEquals(4, errors.received.size());
+    }
+
+    @Test
+    public void virtualMachineErrorsPropagate() {
+        RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE)
+                .circuitBreaker(1, 1000, 200, TimeUnit.MILLISECONDS)
+                .build();
+        Errors errors = new Errors();
+        bus.register(new Overflowing());
+        bus.register(errors);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                bus.post(new Event());
+                fail("StackOverflowError swallowed");
+            }
+            catch (StackOverflowError expected) {
+                // not published, and the breaker stays closed
+            }
+        }
+        assertEquals(0, errors.received.size());
+    }
+
+    @Test
+    public void backgroundDeliveryContinuesAfterVirtualMachineError() throws Exception {
+        final AtomicReference<Throwable> reported = new AtomicReference<>();
+        RxJavaPlugins.setErrorHandler(new Consumer<Throwable>() {
+            @Override
+            public void accept(Throwable throwable) {
+                reported.set(throwable);
+            }
+        });
+        try {
+            RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE).build();
+            BackgroundOverflowingOnce overflowing = new BackgroundOverflowingOnce(1);
+            bus.register(overflowing);
+            bus.post(new Event());
+
+            // registered after the Error, the background queue still drains to it
+            BackgroundCounter later = new BackgroundCounter(2);
+            bus.register(later);
+            bus.post(new Event());
+            bus.post(new Event());
+
+            assertTrue(overflowing.received.await(5, TimeUnit.SECONDS));
+            assertTrue(later.received.await(5, TimeUnit.SECONDS));
+            // wrapped in an UndeliverableException by RxJava
+            assertTrue(reported.get().getCause() instanceof StackOverflowError);
+        }
+        finally {
+            RxJavaPlugins.reset();
+        }
+    }
+
+    @Test
+    public void mailboxDeliveryContinuesAfterVirtualMachineError() throws Exception {
+        int events = 20;
+        Thread.UncaughtExceptionHandler quiet = new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable) {
+            }
+        };
+        // capacity 4, a wedged mailbox would block this thread after four posts
+        RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE)
+                .parallelFanOut(1, 4, new ForkJoinPool(2, ForkJoinPool.defaultForkJoinWorkerThreadFactory, quiet, false))
+                .build();
+        PostingOverflowingOnce overflowing = new PostingOverflowingOnce(events);
+        bus.register(overflowing);
+        for (int i = 0; i <= events; i++) {
+            bus.post(new Event());
+        }
+        assertTrue(overflowing.received.await(5, TimeUnit.SECONDS));
+    }
+}
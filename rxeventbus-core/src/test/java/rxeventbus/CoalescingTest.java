@@ -0,0 +1,151 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.schedulers.TestScheduler;
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * postAll() delivers a mixed batch in order, and postCoalesced() collapses each window to
+ * the latest event per class and key, in the order the keys first showed up.
+ */
+public class CoalescingTest {
+
+    public static class Progress implements KeyedEvent {
+        final String key;
+        final int percent;
+
+        Progress(String key, int percent) {
+            this.key = key;
+            this.percent = percent;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return "Progress " + key + " " + percent;
+        }
+    }
+
+    public static class Done implements KeyedEvent {
+        final String key;
+
+        Done(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return "Done " + key;
+        }
+    }
+
+    public static class Plain {
+        final int sequence;
+
+        Plain(int sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public String toString() {
+            return "Plain " + sequence;
+        }
+    }
+
+    public static class Receiver {
+        final List<String> received = new ArrayList<>();
+
+        @Subscribe
+        public void onProgress(Progress event) {
+            received.add(event.toString());
+        }
+
+        @Subscribe
+        public void onDone(Done event) {
+            received.add(event.toString());
+        }
+
+        @Subscribe
+        public void onPlain(Plain event) {
+            received.add(event.toString());
+        }
+    }
+
+    public static class KeyedReceiver {
+        final List<String> received = new ArrayList<>();
+
+        @Subscribe(key = "a")
+        public void onProgress(Progress event) {
+            received.add(event.toString());
+        }
+    }
+
+    @Test
+    public void postAllKeepsBatchOrder() {
+        RxEventBus bus = RxEventBus.builder().build();
+        Receiver receiver = new Receiver();
+        KeyedReceiver keyed = new KeyedReceiver();
+        bus.register(receiver);
+        bus.register(keyed);
+        bus.postAll(Arrays.asList(new Plain(0), new Plain(1), new Progress("a", 10), new Progress("b", 10),
+                new Plain(2), new Done("a")));
+
+        assertEquals(Arrays.asList("Plain 0", "Plain 1", "Progress a 10", "Progress b 10", "Plain 2", "Done a"),
+                receiver.received);
+        assertEquals(Arrays.asList("Progress a 10"), keyed.received);
+    }
+
+    @Test
+    public void windowKeepsLatestPerClassAndKey() {
+        TestScheduler scheduler = new TestScheduler();
+        RxEventBus bus = RxEventBus.builder().coalescingWindow(100, TimeUnit.MILLISECONDS, scheduler).build();
+        Receiver receiver = new Receiver();
+        bus.register(receiver);
+        bus.postCoalesced(new Progress("a", 10));
+        bus.postCoalesced(new Progress("b", 10));
+        bus.postCoalesced(new Done("a"));
+        bus.postCoalesced(new Progress("a", 50));
+        bus.postCoalesced(new Progress("b", 20));
+
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        assertEquals(0, receiver.received.size());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList("Progress a 50", "Progress b 20", "Done a"), receiver.received);
+    }
+
+    @Test
+    public void nextEventOpensNextWindow() {
+        TestScheduler scheduler = new TestScheduler();
+        RxEventBus bus = RxEventBus.builder().coalescingWindow(100, TimeUnit.MILLISECONDS, scheduler).build();
+        Receiver receiver = new Receiver();
+        bus.register(receiver);
+        bus.postCoalesced(new Progress("a", 10));
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+
+        // nothing pending, so no window open until the next event
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        bus.postCoalesced(new Progress("a", 20));
+        bus.postCoalesced(new Progress("a", 30));
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList("Progress a 10"), receiver.received);
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList("Progress a 10", "Progress a 30"), receiver.received);
+    }
+}
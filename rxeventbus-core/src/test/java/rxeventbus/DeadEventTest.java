@@ -0,0 +1,106 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Events nobody receives come back as one DeadEvent each, never recursively, within the rate
+ * limit and counting what it suppressed.
+ */
+public class DeadEventTest {
+
+    public static class Unheard {
+    }
+
+    public static class Heard {
+    }
+
+    public static class DeadEventReceiver {
+        final List<DeadEvent> received = new ArrayList<>();
+
+        @Subscribe
+        public void onDeadEvent(DeadEvent event) {
+            received.add(event);
+        }
+
+        @Subscribe
+        public void onHeard(Heard event) {
+        }
+    }
+
+    @Test
+    public void oneDeadEventPerUnheardEvent() {
+        RxEventBus bus = RxEventBus.builder().deadEvents(100).build();
+        DeadEventReceiver receiver = new DeadEventReceiver();
+        bus.register(receiver);
+        Unheard unheard = new Unheard();
+        bus.post(unheard);
+        bus.post(new Heard());
+
+        assertEquals(1, receiver.received.size());
+        DeadEvent deadEvent = receiver.received.get(0);
+        assertSame(unheard, deadEvent.getEvent());
+        assertSame(bus, deadEvent.getBus());
+        assertEquals(0, deadEvent.getSuppressedCount());
+    }
+
+    @Test
+    public void unheardDeadEventIsNotWrappedAgain() {
+        RxEventBus bus = RxEventBus.builder().deadEvents(100).metrics(true).build();
+        bus.post(new Unheard());
+
+        List<MetricsSnapshot.EventTypeStats> types = bus.getMetrics().getEventTypes();
+        assertEquals(2, types.size());
+        for (MetricsSnapshot.EventTypeStats type : types) {
+            assertEquals(type.getEventType().getName(), 1, type.getPublished());
+            assertEquals(0, type.getDelivered());
+        }
+    }
+
+    @Test
+    public void offByDefault() {
+        RxEventBus bus = RxEventBus.builder().build();
+        DeadEventReceiver receiver = new DeadEventReceiver();
+        bus.register(receiver);
+        bus.post(new Unheard());
+
+        assertEquals(0, receiver.received.size());
+    }
+
+    @Test
+    public void rateLimitSuppressesThenResumes() throws Exception {
+        RxEventBus bus = RxEventBus.builder().deadEvents(2).build();
+        DeadEventReceiver receiver = new DeadEventReceiver();
+        bus.register(receiver);
+        for (int i = 0; i < 5; i++) {
+            bus.post(new Unheard());
+        }
+        assertEquals(2, receiver.received.size());
+
+        Thread.sleep(1100);
+        bus.post(new Unheard());
+        assertEquals(3, receiver.received.size());
+        assertEquals(3, receiver.received.get(2).getSuppressedCount());
+    }
+
+    @Test
+    public void rateLimiterOpensNewWindowAfterASecond() throws Exception {
+        RateLimiter limiter = new RateLimiter(3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+
+        Thread.sleep(1100);
+        assertTrue(limiter.tryAcquire());
+    }
+}
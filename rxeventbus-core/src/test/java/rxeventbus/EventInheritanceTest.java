@@ -0,0 +1,160 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * With event inheritance on, an event reaches the subscribers of its superclasses and
+ * interfaces. Each table caches the flattened subscribers per event class, and a register or
+ * unregister publishes a table that resolves them afresh.
+ */
+public class EventInheritanceTest {
+
+    public interface Marker {
+    }
+
+    public interface Tagged extends Marker {
+    }
+
+    public static class BaseEvent {
+    }
+
+    public static class SubEvent extends BaseEvent implements Tagged {
+    }
+
+    public static class Log {
+        final List<String> received = new ArrayList<>();
+    }
+
+    public static class SubReceiver {
+        final Log log;
+
+        SubReceiver(Log log) {
+            this.log = log;
+        }
+
+        @Subscribe
+        public void onSub(SubEvent event) {
+            log.received.add("sub");
+        }
+    }
+
+    public static class BaseReceiver {
+        final Log log;
+
+        BaseReceiver(Log log) {
+            this.log = log;
+        }
+
+        @Subscribe
+        public void onBase(BaseEvent event) {
+            log.received.add("base");
+        }
+    }
+
+    public static class MarkerReceiver {
+        final Log log;
+
+        MarkerReceiver(Log log) {
+            this.log = log;
+        }
+
+        @Subscribe
+        public void onMarker(Marker event) {
+            log.received.add("marker");
+        }
+    }
+
+    private static RxEventBus bus(boolean inheritance) {
+        return RxEventBus.builder().eventInheritance(inheritance).build();
+    }
+
+    @Test
+    public void typesAreFlattenedNearestFirst() {
+        assertArrayEquals(new Class<?>[] {SubEvent.class, BaseEvent.class, Object.class, Tagged.class, Marker.class},
+                EventTypes.of(SubEvent.class));
+        assertSame(EventTypes.of(SubEvent.class), EventTypes.of(SubEvent.class));
+    }
+
+    @Test
+    public void superclassAndInterfaceSubscribersReceive() {
+        RxEventBus bus = bus(true);
+        Log log = new Log();
+        // registered farthest type first, delivered nearest type first
+        bus.register(new MarkerReceiver(log));
+        bus.register(new BaseReceiver(log));
+        bus.register(new SubReceiver(log));
+
+        bus.post(new SubEvent());
+        bus.post(new BaseEvent());
+
+        assertEquals(Arrays.asList("sub", "base", "marker", "base"), log.received);
+    }
+
+    @Test
+    public void onlyExactTypeWhenOff() {
+        RxEventBus bus = bus(false);
+        Log log = new Log();
+        bus.register(new MarkerReceiver(log));
+        bus.register(new BaseReceiver(log));
+        bus.register(new SubReceiver(log));
+
+        bus.post(new SubEvent());
+
+        assertEquals(Arrays.asList("sub"), log.received);
+    }
+
+    @Test
+    public void registerAndUnregisterInvalidateTheCache() {
+        RxEventBus bus = bus(true);
+        Log log = new Log();
+        bus.register(new SubReceiver(log));
+        // resolves and caches SubEvent in the current table
+        bus.post(new SubEvent());
+
+        BaseReceiver base = new BaseReceiver(log);
+        bus.register(base);
+        bus.post(new SubEvent());
+
+        bus.unregister(base);
+        bus.post(new SubEvent());
+
+        assertEquals(Arrays.asList("sub", "sub", "base", "sub"), log.received);
+    }
+
+    @Test
+    public void tableCachesUntilSwapped() {
+        SubscriberMethodFinder finder = new SubscriberMethodFinder();
+        Log log = new Log();
+        SubReceiver sub = new SubReceiver(log);
+        BaseReceiver base = new BaseReceiver(log);
+        ReceiverReference subReference = new ReceiverReference(sub);
+        ReceiverReference baseReference = new ReceiverReference(base);
+
+        DispatchTable table = DispatchTable.EMPTY.withEventInheritance(true).withReceiver(subReference,
+                new Subscriber[] {new Subscriber(subReference, false, finder.findSubscriberMethods(SubReceiver.class)[0], null)});
+        Subscriber[] cached = table.getSubscribers(SubEvent.class);
+        assertEquals(1, cached.length);
+        assertSame(cached, table.getSubscribers(SubEvent.class));
+
+        DispatchTable added = table.withReceiver(baseReference,
+                new Subscriber[] {new Subscriber(baseReference, false, finder.findSubscriberMethods(BaseReceiver.class)[0], null)});
+        assertEquals(2, added.getSubscribers(SubEvent.class).length);
+        // the old snapshot keeps what it resolved
+        assertSame(cached, table.getSubscribers(SubEvent.class));
+
+        DispatchTable removed = added.withoutReceiver(baseReference);
+        assertEquals(1, removed.getSubscribers(SubEvent.class).length);
+        assertSame(sub, removed.getSubscribers(SubEvent.class)[0].getReceiver());
+        assertEquals(0, removed.withoutReceiver(subReference).getSubscribers(SubEvent.class).length);
+    }
+}
@@ -0,0 +1,148 @@
+package rxeventbus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records events across several small segments and replays ranges of them.
+ */
+public class EventJournalTest {
+
+    private File directory;
+
+    public static final class Order {
+        final int id;
+
+        Order(int id) {
+            this.id = id;
+        }
+    }
+
+    static final class OrderCodec implements EventCodec<Order> {
+        @Override
+        public void encode(Order event, ByteBuffer buffer) {
+            buffer.putInt(event.id);
+        }
+
+        @Override
+        public Order decode(ByteBuffer buffer) {
+            return new Order(buffer.getInt());
+        }
+    }
+
+    public static class Receiver {
+        final List<Integer> ids = new ArrayList<>();
+
+        @Subscribe
+        public void onOrder(Order order) {
+            ids.add(order.id);
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("rxeventbus", "journal");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private EventJournal journal() {
+        return EventJournal.builder(directory)
+                .codec(1, Order.class, new OrderCodec())
+                .segmentSize(4096)
+                .flushInterval(10, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Test
+    public void replaysWhatWasRecorded() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        EventJournal journal = journal();
+        journal.record(bus);
+        for (int i = 0; i < 1000; i++) {
+            bus.post(new Order(i));
+        }
+        journal.close();
+        // not recorded any more
+        bus.post(new Order(1000));
+        assertTrue(directory.listFiles().length > 1);
+
+        RxEventBus replayBus = RxEventBus.builder().build();
+        Receiver receiver = new Receiver();
+        replayBus.register(receiver);
+        assertEquals(1000, journal().replay(replayBus, 0, Long.MAX_VALUE, false));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) receiver.ids.get(i));
+        }
+    }
+
+    @Test
+    public void replaysTimeRangeWithOriginalTiming() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        EventJournal journal = journal();
+        journal.record(bus);
+        bus.post(new Order(0));
+        Thread.sleep(50);
+        long from = System.currentTimeMillis();
+        bus.post(new Order(1));
+        Thread.sleep(100);
+        bus.post(new Order(2));
+        Thread.sleep(50);
+        long to = System.currentTimeMillis();
+        bus.post(new Order(3));
+        journal.close();
+
+        RxEventBus replayBus = RxEventBus.builder().build();
+        Receiver receiver = new Receiver();
+        replayBus.register(receiver);
+        long start = System.nanoTime();
+        assertEquals(2, journal().replay(replayBus, from, to, true));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+        assertEquals(1, (int) receiver.ids.get(0));
+        assertEquals(2, (int) receiver.ids.get(1));
+    }
+
+    @Test
+    public void recordsAgainAfterClose() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        EventJournal journal = journal();
+        journal.record(bus);
+        bus.post(new Order(0));
+        // a few flush intervals, handed to the writer while it is idle
+        Thread.sleep(50);
+        bus.post(new Order(1));
+        journal.close();
+        journal.close();
+        journal.record(bus);
+        bus.post(new Order(2));
+        journal.close();
+
+        RxEventBus replayBus = RxEventBus.builder().build();
+        Receiver receiver = new Receiver();
+        replayBus.register(receiver);
+        assertEquals(3, journal().replay(replayBus, 0, Long.MAX_VALUE, false));
+        assertEquals(2, (int) receiver.ids.get(2));
+    }
+}
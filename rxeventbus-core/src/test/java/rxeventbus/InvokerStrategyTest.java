@@ -0,0 +1,161 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Every InvokerStrategy calls the method and rethrows its failures unwrapped, and a strategy
+ * that can't reach a receiver or event type steps down to the next one.
+ */
+public class InvokerStrategyTest {
+
+    public static class Event {
+    }
+
+    // package private, a generated lambda class can't link against it
+    static class HiddenEvent {
+    }
+
+    public static class Receiver {
+        final List<Object> received = new ArrayList<>();
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received.add(event);
+        }
+
+        @Subscribe
+        public void onHiddenEvent(HiddenEvent event) {
+            received.add(event);
+        }
+    }
+
+    static class HiddenReceiver {
+        final List<Object> received = new ArrayList<>();
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received.add(event);
+        }
+    }
+
+    public static class Failing {
+        @Subscribe
+        public void onEvent(Event event) {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    private static Method method(Class<?> receiverClass, String name, Class<?> eventType) throws Exception {
+        return receiverClass.getMethod(name, eventType);
+    }
+
+    @Test
+    public void everyStrategyDelivers() throws Throwable {
+        Method onEvent = method(Receiver.class, "onEvent", Event.class);
+        for (InvokerStrategy strategy : InvokerStrategy.values()) {
+            Receiver receiver = new Receiver();
+            Event event = new Event();
+
+            strategy.create(onEvent).invoke(receiver, event);
+
+            assertEquals(strategy.name(), 1, receiver.received.size());
+            assertSame(event, receiver.received.get(0));
+        }
+    }
+
+    @Test
+    public void eachStrategyMakesItsOwnInvoker() throws Throwable {
+        Method onEvent = method(Receiver.class, "onEvent", Event.class);
+
+        assertTrue(InvokerStrategy.REFLECTIVE.create(onEvent) instanceof ReflectiveInvoker);
+        assertTrue(InvokerStrategy.METHOD_HANDLE.create(onEvent) instanceof MethodHandleInvoker);
+        EventInvoker lambda = InvokerStrategy.LAMBDA.create(onEvent);
+        assertFalse(lambda instanceof ReflectiveInvoker || lambda instanceof MethodHandleInvoker);
+    }
+
+    @Test
+    public void failuresAreRethrownUnwrapped() throws Exception {
+        Method onEvent = method(Failing.class, "onEvent", Event.class);
+        for (InvokerStrategy strategy : InvokerStrategy.values()) {
+            try {
+                strategy.create(onEvent).invoke(new Failing(), new Event());
+                fail(strategy + " swallowed the failure");
+            }
+            catch (IllegalStateException expected) {
+                // the method's own exception, not an InvocationTargetException
+            }
+            catch (Throwable t) {
+                fail(strategy + " threw " + t);
+            }
+        }
+    }
+
+    @Test
+    public void busDeliversWithEveryStrategy() {
+        for (InvokerStrategy strategy : InvokerStrategy.values()) {
+            RxEventBus bus = RxEventBus.builder().invokerStrategy(strategy).build();
+            Receiver receiver = new Receiver();
+            bus.register(receiver);
+
+            bus.post(new Event());
+
+            assertEquals(strategy.name(), 1, receiver.received.size());
+        }
+    }
+
+    @Test
+    public void lambdaStepsDownForPackagePrivateReceiver() throws Throwable {
+        Method onEvent = method(HiddenReceiver.class, "onEvent", Event.class);
+        try {
+            InvokerStrategy.LAMBDA.create(onEvent);
+            fail("LAMBDA linked against a package private class");
+        }
+        catch (IllegalArgumentException expected) {
+            // falls back below
+        }
+
+        EventInvoker invoker = InvokerStrategy.LAMBDA.createOrFallback(onEvent);
+        HiddenReceiver receiver = new HiddenReceiver();
+        invoker.invoke(receiver, new Event());
+
+        assertTrue(invoker instanceof MethodHandleInvoker);
+        assertEquals(1, receiver.received.size());
+    }
+
+    @Test
+    public void lambdaStepsDownForPackagePrivateEventType() throws Throwable {
+        Method onHiddenEvent = method(Receiver.class, "onHiddenEvent", HiddenEvent.class);
+
+        EventInvoker invoker = InvokerStrategy.LAMBDA.createOrFallback(onHiddenEvent);
+        Receiver receiver = new Receiver();
+        invoker.invoke(receiver, new HiddenEvent());
+
+        assertTrue(invoker instanceof MethodHandleInvoker);
+        assertEquals(1, receiver.received.size());
+    }
+
+    @Test
+    public void fallbackNeverStepsUp() throws Throwable {
+        Method onEvent = method(Receiver.class, "onEvent", Event.class);
+
+        assertTrue(InvokerStrategy.METHOD_HANDLE.createOrFallback(onEvent) instanceof MethodHandleInvoker);
+        assertTrue(InvokerStrategy.REFLECTIVE.createOrFallback(onEvent) instanceof ReflectiveInvoker);
+    }
+
+    @Test
+    public void lambdaIsFastestOnTheJvm() {
+        assertEquals(InvokerStrategy.LAMBDA, InvokerStrategy.fastestSupported());
+    }
+}
@@ -0,0 +1,260 @@
+package rxeventbus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Exports events from this JVM to a second one through a {@link MappedEventBridge}, which
+ * must receive every one of them in order. Closing an exporter releases a publisher waiting
+ * on a full file without a failure, and an importer keeps going after a receiver throws.
+ * MappedEventBridgeBenchmark measures throughput and latency.
+ */
+public class MappedEventBridgeTest {
+
+    private static final int EVENTS = 200000;
+
+    private File file;
+
+    public static final class Ping {
+        final long sequence;
+
+        Ping(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    static final class PingCodec implements EventCodec<Ping> {
+        @Override
+        public void encode(Ping event, ByteBuffer buffer) {
+            buffer.putLong(event.sequence);
+        }
+
+        @Override
+        public Ping decode(ByteBuffer buffer) {
+            return new Ping(buffer.getLong());
+        }
+    }
+
+    /**
+     * The importing process. Tells the test it is attached, then once every event arrived,
+     * or whatever it got within a minute, reports "received out-of-order" on its output pipe.
+     */
+    public static final class Peer {
+
+        final int events;
+        int received;
+        int outOfOrder;
+
+        Peer(int events) {
+            this.events = events;
+        }
+
+        @Subscribe
+        public synchronized void onPing(Ping ping) {
+            if (ping.sequence != received) {
+                outOfOrder++;
+            }
+            if (++received == events) {
+                notifyAll();
+            }
+        }
+
+        public static void main(String[] args) throws Exception {
+            int events = Integer.parseInt(args[1]);
+            RxEventBus bus = RxEventBus.builder().build();
+            Peer peer = new Peer(events);
+            bus.register(peer);
+            MappedEventBridge bridge = MappedEventBridge.builder(new File(args[0]))
+                    .codec(1, Ping.class, new PingCodec())
+                    .importInto(bus);
+            // this process's output is the pipe the test reads
+            System.out.println("ATTACHED");
+
+            synchronized (peer) {
+                long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+                while (peer.received < events && System.nanoTime() < deadline) {
+                    peer.wait(100);
+                }
+                bridge.close();
+                System.out.println(peer.received + " " + peer.outOfOrder);
+            }
+        }
+    }
+
+    public static final class Failures {
+        final List<Throwable> reported = new ArrayList<>();
+
+        @Subscribe
+        public synchronized void onFailure(SubscriberExceptionEvent event) {
+            reported.add(event.getThrowable());
+        }
+    }
+
+    // overflows its stack on the first ping, the bus rethrows that to the reader thread
+    public static final class Overflowing {
+        final List<Long> received = new ArrayList<>();
+
+        @Subscribe
+        public synchronized void onPing(Ping ping) {
+            if (ping.sequence == 0) {
+                throw new StackOverflowError();
+            }
+            received.add(ping.sequence);
+            notifyAll();
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(System.getProperty("os.name").startsWith("Linux"));
+        file = File.createTempFile("rxeventbus", ".ring");
+    }
+
+    @After
+    public void tearDown() {
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void exportsToAnotherProcess() throws Exception {
+        final Process process = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), Peer.class.getName(), file.getPath(),
+                String.valueOf(EVENTS))
+                .redirectErrorStream(true)
+                .start();
+        // kills a stuck peer, so the reads and waitFor() below return
+        Thread watchdog = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(2));
+                    process.destroy();
+                }
+                catch (InterruptedException e) {
+                    // the peer finished
+                }
+            }
+        }, "MappedEventBridgeTest-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+        try {
+            BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+            assertEquals("ATTACHED", output.readLine());
+
+            RxEventBus bus = RxEventBus.builder().build();
+            MappedEventBridge bridge = MappedEventBridge.builder(file)
+                    .codec(1, Ping.class, new PingCodec())
+                    .exportFrom(bus);
+            for (int i = 0; i < EVENTS; i++) {
+                bus.post(new Ping(i));
+            }
+            bridge.close();
+
+            String result = output.readLine();
+            assertEquals(0, process.waitFor());
+            assertEquals(EVENTS + " 0", result);
+        }
+        finally {
+            watchdog.interrupt();
+            process.destroy();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void closingExporterReleasesWaitingPublisher() throws Exception {
+        final RxEventBus bus = RxEventBus.builder().build();
+        Failures failures = new Failures();
+        bus.register(failures);
+        MappedEventBridge bridge = MappedEventBridge.builder(file)
+                .codec(1, Ping.class, new PingCodec())
+                .capacity(1024)
+                .maxEventSize(64)
+                .exportFrom(bus);
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        // nobody imports, so the publisher ends up waiting for room
+        Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < 1000; i++) {
+                        bus.post(new Ping(i));
+                    }
+                }
+                catch (Throwable t) {
+                    thrown.set(t);
+                }
+            }
+        }, "MappedEventBridgeTest-publisher");
+        publisher.start();
+        while (publisher.getState() != Thread.State.TIMED_WAITING && publisher.isAlive()) {
+            Thread.sleep(1);
+        }
+
+        bridge.close();
+        publisher.join();
+
+        assertNull(thrown.get());
+        synchronized (failures) {
+            assertEquals(new ArrayList<Throwable>(), failures.reported);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void importContinuesAfterReceiverError() throws Exception {
+        final AtomicReference<Throwable> reported = new AtomicReference<>();
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable) {
+                reported.set(throwable);
+            }
+        });
+        try {
+            RxEventBus exporting = RxEventBus.builder().build();
+            RxEventBus importing = RxEventBus.builder().build();
+            Overflowing receiver = new Overflowing();
+            importing.register(receiver);
+            MappedEventBridge importer = MappedEventBridge.builder(file)
+                    .codec(1, Ping.class, new PingCodec())
+                    .importInto(importing);
+            MappedEventBridge exporter = MappedEventBridge.builder(file)
+                    .codec(1, Ping.class, new PingCodec())
+                    .exportFrom(exporting);
+            for (int i = 0; i < 3; i++) {
+                exporting.post(new Ping(i));
+            }
+
+            synchronized (receiver) {
+                while (receiver.received.size() < 2) {
+                    receiver.wait();
+                }
+                assertEquals(2, receiver.received.size());
+            }
+            exporter.close();
+            importer.close();
+            assertTrue(reported.get() instanceof StackOverflowError);
+        }
+        finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package rxeventbus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Records of any size up to maxPayload() cross the end of the ring intact and in order,
+ * with a consumer on another thread.
+ */
+public class MappedRingTest {
+
+    private static final int CAPACITY = 64;
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("rxeventbus", ".ring");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test(timeout = 10000)
+    public void largeRecordsWrap() throws Exception {
+        final MappedRing producer = new MappedRing(file, CAPACITY, WaitStrategy.YIELD);
+        final MappedRing consumer = new MappedRing(file, CAPACITY, WaitStrategy.YIELD);
+        // a small record moves the next one off the start, so the largest must wrap
+        final int[] lengths = {8, producer.maxPayload(), 8, 40, producer.maxPayload(), 24, producer.maxPayload()};
+        final List<byte[]> received = new ArrayList<>();
+
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (received.size() < lengths.length) {
+                    consumer.read(new MappedRing.Handler() {
+                        @Override
+                        public void onRecord(int type, ByteBuffer payload) {
+                            assertEquals(7, type);
+                            byte[] bytes = new byte[payload.remaining()];
+                            payload.get(bytes);
+                            received.add(bytes);
+                        }
+                    }, 16);
+                    Thread.yield();
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < lengths.length; i++) {
+            byte[] bytes = new byte[lengths[i]];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) (i + j);
+            }
+            producer.write(7, ByteBuffer.wrap(bytes));
+        }
+        reader.join();
+
+        assertEquals(lengths.length, received.size());
+        for (int i = 0; i < lengths.length; i++) {
+            byte[] bytes = received.get(i);
+            assertEquals(lengths[i], bytes.length);
+            for (int j = 0; j < bytes.length; j++) {
+                assertEquals((byte) (i + j), bytes[j]);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Metrics count published events and time subscriber methods, and stay out of the way when off.
+ */
+public class MetricsTest {
+
+    public static class Event {
+    }
+
+    public static class Unheard {
+    }
+
+    public static class Fast {
+        @Subscribe
+        public void onEvent(Event event) {
+        }
+    }
+
+    public static class Slow {
+        @Subscribe
+        public void onEvent(Event event) throws InterruptedException {
+            Thread.sleep(2);
+        }
+    }
+
+    public static class Failing {
+        @Subscribe
+        public void onEvent(Event event) {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    public static class Cancelled {
+    }
+
+    public static class Cancelling {
+        @Subscribe(priority = 1)
+        public void onEvent(Cancelled event) {
+            RxEventBus.cancelEventDelivery(event);
+        }
+    }
+
+    public static class Late {
+        @Subscribe
+        public void onEvent(Cancelled event) {
+        }
+    }
+
+    private static MetricsSnapshot.EventTypeStats stats(MetricsSnapshot snapshot, Class<?> eventType) {
+        for (MetricsSnapshot.EventTypeStats stats : snapshot.getEventTypes()) {
+            if (stats.getEventType() == eventType) {
+                return stats;
+            }
+        }
+        throw new AssertionError("No stats for " + eventType);
+    }
+
+    @Test
+    public void countsAndTimes() {
+        RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE).metrics(true).build();
+        bus.register(new Fast());
+        bus.register(new Fast());
+        bus.register(new Slow());
+        bus.register(new Failing());
+        for (int i = 0; i < 10; i++) {
+            bus.post(new Event());
+        }
+        bus.post(new Unheard());
+
+        MetricsSnapshot snapshot = bus.getMetrics();
+        assertEquals(2, snapshot.getEventTypes().size());
+        MetricsSnapshot.EventTypeStats events = snapshot.getEventTypes().get(0);
+        assertSame(Event.class, events.getEventType());
+        assertEquals(10, events.getPublished());
+        assertEquals(40, events.getDelivered());
+        assertEquals(4.0, events.getMeanFanOut(), 0.0);
+        assertEquals(1, snapshot.getEventTypes().get(1).getPublished());
+
+        // both Fast receivers share the method's entry, and the slow one took most time
+        assertEquals(3, snapshot.getHandlers().size());
+        MetricsSnapshot.HandlerStats slow = snapshot.getHandlers().get(0);
+        assertTrue(slow.getHandlerId().startsWith(Slow.class.getName()));
+        assertEquals(10, slow.getInvocations());
+        assertTrue(slow.getNanosAtPercentile(50) >= TimeUnit.MILLISECONDS.toNanos(2) * 15 / 16);
+        assertTrue(slow.getNanosAtPercentile(100) <= slow.getMaxNanos());
+        for (MetricsSnapshot.HandlerStats handler : snapshot.getHandlers()) {
+            if (handler.getHandlerId().startsWith(Fast.class.getName())) {
+                assertEquals(20, handler.getInvocations());
+                assertEquals(0, handler.getFailures());
+            }
+            else if (handler.getHandlerId().startsWith(Failing.class.getName())) {
+                assertEquals(10, handler.getFailures());
+            }
+        }
+    }
+
+    @Test
+    public void offByDefault() {
+        RxEventBus bus = RxEventBus.builder().build();
+        bus.register(new Fast());
+        bus.post(new Event());
+        assertNull(bus.getMetrics());
+    }
+
+    @Test
+    public void exportsPeriodically() throws Exception {
+        final CountDownLatch exported = new CountDownLatch(2);
+        final AtomicReference<MetricsSnapshot> last = new AtomicReference<>();
+        RxEventBus bus = RxEventBus.builder().metricsExporter(new MetricsExporter() {
+            @Override
+            public void export(MetricsSnapshot snapshot) {
+                last.set(snapshot);
+                exported.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS).build();
+        bus.post(new Event());
+
+        assertTrue(exported.await(5, TimeUnit.SECONDS));
+        bus.shutdown();
+        assertEquals(1, last.get().getEventTypes().get(0).getPublished());
+    }
+
+    @Test
+    public void histogramBucketsStayWithinASixteenth() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1000, 123456, 987654321L};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucket(value);
+            long highest = LatencyHistogram.highestValue(bucket);
+            assertTrue(value + " above its bucket", value <= highest);
+            assertTrue(value + " too far below its bucket", highest - value <= value / 16);
+            if (bucket > 0) {
+                assertTrue(value + " in the bucket below", value > LatencyHistogram.highestValue(bucket - 1));
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void deliveredCountsOnlyHandledEvents() {
+        RxEventBus bus = RxEventBus.builder().logger(EventBusLogger.NONE).metrics(true)
+                .circuitBreaker(1, 1000, 10, TimeUnit.SECONDS)
+                .build();
+        bus.register(new Cancelling());
+        bus.register(new Late());
+        bus.register(new Failing());
+        for (int i = 0; i < 5; i++) {
+            bus.post(new Cancelled());
+            bus.post(new Event());
+        }
+
+        MetricsSnapshot snapshot = bus.getMetrics();
+        // Late never sees a cancelled event
+        assertEquals(5, stats(snapshot, Cancelled.class).getPublished());
+        assertEquals(5, stats(snapshot, Cancelled.class).getDelivered());
+        // the first failure opens the breaker, the other four are skipped
+        assertEquals(5, stats(snapshot, Event.class).getPublished());
+        assertEquals(1, stats(snapshot, Event.class).getDelivered());
+    }
+
+    @Test
+    public void exportContinuesAfterExporterFails() throws Exception {
+        final CountDownLatch exported = new CountDownLatch(2);
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicReference<Throwable> logged = new AtomicReference<>();
+        EventBusLogger logger = new EventBusLogger() {
+            @Override
+            public boolean isLoggable(Level level) {
+                return true;
+            }
+
+            @Override
+            public void log(Level level, String message) {
+            }
+
+            @Override
+            public void log(Level level, String message, Throwable throwable) {
+                logged.compareAndSet(null, throwable);
+            }
+        };
+        RxEventBus bus = RxEventBus.builder().logger(logger).metricsExporter(new MetricsExporter() {
+            @Override
+            public void export(MetricsSnapshot snapshot) {
+                if (calls.getAndIncrement() == 0) {
+                    throw new IllegalStateException("backend down");
+                }
+                exported.countDown();
+            }
+        }, 20, TimeUnit.MILLISECONDS).build();
+
+        assertTrue(exported.await(5, TimeUnit.SECONDS));
+        bus.shutdown();
+        assertTrue(logged.get() instanceof IllegalStateException);
+    }
+}
@@ -0,0 +1,179 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * debounceMs, throttleMs and sampleMs let through the events they promise, all timed on
+ * the one shared timer thread.
+ */
+public class PacingTest {
+
+    public static class Event {
+        final int sequence;
+
+        Event(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    public static class Debounced {
+        final List<Integer> received = new ArrayList<>();
+
+        @Subscribe(debounceMs = 100)
+        public synchronized void onEvent(Event event) {
+            received.add(event.sequence);
+        }
+    }
+
+    public static class Throttled {
+        final List<Integer> received = new ArrayList<>();
+
+        @Subscribe(throttleMs = 200)
+        public synchronized void onEvent(Event event) {
+            received.add(event.sequence);
+        }
+    }
+
+    public static class Sampled {
+        final List<Integer> received = new ArrayList<>();
+
+        @Subscribe(sampleMs = 100)
+        public synchronized void onEvent(Event event) {
+            received.add(event.sequence);
+        }
+    }
+
+    public static class SlowDebounced {
+        volatile String thread;
+
+        @Subscribe(debounceMs = 20)
+        public void onEvent(Event event) throws InterruptedException {
+            thread = Thread.currentThread().getName();
+            Thread.sleep(1000);
+        }
+    }
+
+    public static class Other {
+    }
+
+    public static class OtherDebounced {
+        final CountDownLatch received = new CountDownLatch(1);
+
+        @Subscribe(debounceMs = 50)
+        public void onOther(Other other) {
+            received.countDown();
+        }
+    }
+
+    @Test
+    public void slowHandlerDoesNotHoldUpTimer() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        SlowDebounced slow = new SlowDebounced();
+        OtherDebounced other = new OtherDebounced();
+        bus.register(slow);
+        bus.register(other);
+
+        bus.post(new Event(1));
+        Thread.sleep(100);
+        // the slow handler is busy for another 900ms
+        long start = System.nanoTime();
+        bus.post(new Other());
+
+        assertTrue(other.received.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertNotEquals("RxEventBus-timer", slow.thread);
+    }
+
+    @Test
+    public void debounceDeliversLatestAfterQuietPeriod() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        Debounced receiver = new Debounced();
+        bus.register(receiver);
+        for (int i = 0; i < 10; i++) {
+            bus.post(new Event(i));
+            Thread.sleep(10);
+        }
+        assertEquals(0, size(receiver.received, receiver));
+        Thread.sleep(300);
+        synchronized (receiver) {
+            assertEquals(1, receiver.received.size());
+            assertEquals(9, (int) receiver.received.get(0));
+        }
+    }
+
+    @Test
+    public void throttleDeliversFirstThenLatestPerPeriod() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        Throttled receiver = new Throttled();
+        bus.register(receiver);
+        for (int i = 0; i < 5; i++) {
+            bus.post(new Event(i));
+        }
+        synchronized (receiver) {
+            assertEquals(1, receiver.received.size());
+            assertEquals(0, (int) receiver.received.get(0));
+        }
+        Thread.sleep(500);
+        synchronized (receiver) {
+            assertEquals(2, receiver.received.size());
+            assertEquals(4, (int) receiver.received.get(1));
+        }
+    }
+
+    @Test
+    public void sampleDeliversLatestPerPeriod() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        Sampled receiver = new Sampled();
+        bus.register(receiver);
+        for (int i = 0; i < 50; i++) {
+            bus.post(new Event(i));
+            Thread.sleep(10);
+        }
+        Thread.sleep(300);
+        synchronized (receiver) {
+            int size = receiver.received.size();
+            assertTrue(size >= 2 && size <= 7);
+            assertEquals(49, (int) receiver.received.get(size - 1));
+        }
+    }
+
+    @Test
+    public void thousandsOfSubscribersShareOneTimerThread() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        List<Debounced> receivers = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Debounced receiver = new Debounced();
+            receivers.add(receiver);
+            bus.register(receiver);
+        }
+        bus.post(new Event(1));
+        Thread.sleep(500);
+        for (Debounced receiver : receivers) {
+            assertEquals(1, size(receiver.received, receiver));
+        }
+        int timers = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("RxEventBus-timer")) {
+                timers++;
+            }
+        }
+        assertEquals(1, timers);
+    }
+
+    private static int size(List<Integer> received, Object lock) {
+        synchronized (lock) {
+            return received.size();
+        }
+    }
+}
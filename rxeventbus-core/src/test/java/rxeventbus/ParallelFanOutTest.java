@@ -0,0 +1,131 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Parallel fan-out keeps every subscriber's events in publish order and a slow subscriber
+ * from holding up the others. A pool the bus created stops with the bus.
+ */
+public class ParallelFanOutTest {
+
+    public static class Event {
+        final int sequence;
+
+        Event(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    public static class Receiver {
+        final List<Integer> received = new ArrayList<>();
+        final CountDownLatch done;
+        final long delay;
+
+        Receiver(int events, long delay) {
+            done = new CountDownLatch(events);
+            this.delay = delay;
+        }
+
+        @Subscribe
+        public void onEvent(Event event) throws InterruptedException {
+            Thread.sleep(delay);
+            received.add(event.sequence);
+            done.countDown();
+        }
+    }
+
+    public static class ThreadRecorder {
+        final Set<Thread> threads;
+        final CountDownLatch done;
+
+        ThreadRecorder(Set<Thread> threads, CountDownLatch done) {
+            this.threads = threads;
+            this.done = done;
+        }
+
+        @Subscribe
+        public void onEvent(Event event) {
+            threads.add(Thread.currentThread());
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void keepsOrderPerSubscriber() throws Exception {
+        int events = 1000;
+        RxEventBus bus = RxEventBus.builder().parallelFanOut(16, 64, new ForkJoinPool(4)).build();
+        List<Receiver> receivers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Receiver receiver = new Receiver(events, 0);
+            receivers.add(receiver);
+            bus.register(receiver);
+        }
+        for (int i = 0; i < events; i++) {
+            bus.post(new Event(i));
+        }
+        for (Receiver receiver : receivers) {
+            assertTrue(receiver.done.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < events; i++) {
+                assertEquals(i, (int) receiver.received.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void slowSubscriberOnlyDelaysItself() throws Exception {
+        int events = 10;
+        RxEventBus bus = RxEventBus.builder().parallelFanOut(2, 64, new ForkJoinPool(4)).build();
+        Receiver slow = new Receiver(events, 100);
+        bus.register(slow);
+        List<Receiver> fast = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Receiver receiver = new Receiver(events, 0);
+            fast.add(receiver);
+            bus.register(receiver);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            bus.post(new Event(i));
+        }
+        for (Receiver receiver : fast) {
+            assertTrue(receiver.done.await(10, TimeUnit.SECONDS));
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(slow.done.getCount() > 0);
+        assertTrue(slow.done.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownStopsThePoolTheBusCreated() throws Exception {
+        RxEventBus bus = RxEventBus.builder().parallelFanOut(2, 8).build();
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            bus.register(new ThreadRecorder(threads, done));
+        }
+        bus.post(new Event(0));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        bus.shutdown();
+        for (Thread thread : new ArrayList<>(threads)) {
+            thread.join(5000);
+            assertFalse(thread.getName(), thread.isAlive());
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.schedulers.Schedulers;
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Subscribers are called highest priority first, and a POSTING subscriber can stop delivery
+ * to the ones below it; anywhere else cancelEventDelivery() throws.
+ */
+public class PriorityTest {
+
+    public static class Event {
+        final boolean cancel;
+
+        Event(boolean cancel) {
+            this.cancel = cancel;
+        }
+    }
+
+    public static class Nested {
+    }
+
+    static final List<String> calls = new ArrayList<>();
+
+    public static class Low {
+        @Subscribe(priority = -1)
+        public void onEvent(Event event) {
+            calls.add("low");
+        }
+    }
+
+    public static class Default {
+        @Subscribe
+        public void onEvent(Event event) {
+            calls.add("default");
+        }
+    }
+
+    public static class High {
+        final String name;
+
+        High(String name) {
+            this.name = name;
+        }
+
+        @Subscribe(priority = 5)
+        public void onEvent(Event event) {
+            calls.add(name);
+            if (event.cancel) {
+                RxEventBus.cancelEventDelivery(event);
+            }
+        }
+    }
+
+    public static class Reposting {
+        final RxEventBus bus;
+
+        Reposting(RxEventBus bus) {
+            this.bus = bus;
+        }
+
+        @Subscribe(priority = 10)
+        public void onEvent(Event event) {
+            // a nested delivery must not lose the outer event's cancellation state
+            bus.post(new Nested());
+            RxEventBus.cancelEventDelivery(event);
+        }
+
+        @Subscribe
+        public void onNested(Nested nested) {
+            calls.add("nested");
+        }
+    }
+
+    public static class Background {
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, priority = 10)
+        public void onEvent(Event event) {
+            try {
+                RxEventBus.cancelEventDelivery(event);
+            }
+            catch (Throwable t) {
+                thrown.set(t);
+            }
+            done.countDown();
+        }
+    }
+
+    public static class Main {
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        @Subscribe(threadMode = ThreadMode.MAIN, priority = 10)
+        public void onEvent(Event event) {
+            try {
+                RxEventBus.cancelEventDelivery(event);
+            }
+            catch (Throwable t) {
+                thrown.set(t);
+            }
+        }
+    }
+
+    private static RxEventBus bus(Object... receivers) {
+        calls.clear();
+        RxEventBus bus = RxEventBus.builder().build();
+        for (Object receiver : receivers) {
+            bus.register(receiver);
+        }
+        return bus;
+    }
+
+    @Test
+    public void highestPriorityFirstThenSubscriptionOrder() {
+        RxEventBus bus = bus(new Low(), new Default(), new High("first"), new High("second"));
+        bus.post(new Event(false));
+
+        assertEquals(Arrays.asList("first", "second", "default", "low"), calls);
+    }
+
+    @Test
+    public void cancelStopsLowerPriorities() {
+        RxEventBus bus = bus(new Low(), new Default(), new High("first"), new High("second"));
+        bus.post(new Event(true));
+
+        // subscribers after the cancelling one are skipped, the equal priority one included
+        assertEquals(Arrays.asList("first"), calls);
+
+        calls.clear();
+        bus.post(new Event(false));
+        assertEquals(4, calls.size());
+    }
+
+    @Test
+    public void cancelAfterNestedPost() {
+        RxEventBus bus = RxEventBus.builder().build();
+        calls.clear();
+        bus.register(new Default());
+        bus.register(new Reposting(bus));
+        bus.post(new Event(false));
+
+        assertEquals(Arrays.asList("nested"), calls);
+    }
+
+    @Test
+    public void cancelOffThePostingThreadThrows() throws Exception {
+        Background background = new Background();
+        RxEventBus bus = bus(background, new Default());
+        bus.post(new Event(false));
+
+        assertTrue(background.done.await(5, TimeUnit.SECONDS));
+        assertTrue(background.thrown.get() instanceof IllegalStateException);
+        assertEquals(Arrays.asList("default"), calls);
+    }
+
+    @Test
+    public void cancelFromMainOnThePostingThreadThrows() {
+        Main main = new Main();
+        calls.clear();
+        // trampoline runs MAIN methods right inside post()
+        RxEventBus bus = RxEventBus.builder().mainThreadScheduler(Schedulers.trampoline()).build();
+        bus.register(main);
+        bus.register(new Default());
+        bus.post(new Event(false));
+
+        assertTrue(main.thrown.get() instanceof IllegalStateException);
+        assertTrue(main.thrown.get().getMessage().startsWith("Only POSTING"));
+        assertEquals(Arrays.asList("default"), calls);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void cancelOutsideDeliveryThrows() {
+        RxEventBus.cancelEventDelivery(new Event(true));
+    }
+}
@@ -0,0 +1,139 @@
+package rxeventbus;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Publishing to POSTING subscribers, or to nobody, allocates nothing once warmed up. Counts
+ * the bytes the test thread allocates with HotSpot's ThreadMXBean, skipped on JVMs without it.
+ */
+public class PublishAllocationTest {
+
+    private static final int WARMUP = 200000;
+    private static final int PUBLISHES = 100000;
+    // the measuring calls themselves, far below one byte per publish
+    private static final long SLACK = 1024;
+
+    private com.sun.management.ThreadMXBean threads;
+
+    public static class Event {
+    }
+
+    public static class Unheard {
+    }
+
+    public static class Keyed implements KeyedEvent {
+        final String key;
+
+        Keyed(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+    }
+
+    public static class KeyedReceiver {
+        long received;
+
+        @Subscribe
+        public void onKeyed(Keyed event) {
+            received++;
+        }
+    }
+
+    public static class Receiver {
+        long received;
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received++;
+        }
+
+        @Subscribe(priority = 1)
+        public void onObject(Object event) {
+            received++;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void publishWithoutSubscribers() {
+        RxEventBus bus = RxEventBus.builder().build();
+        assertEquals(0, allocatedPerPublishes(bus, new Unheard()));
+    }
+
+    @Test
+    public void publishToPostingSubscribers() {
+        RxEventBus bus = RxEventBus.builder().build();
+        Receiver[] receivers = register(bus, 10);
+        assertEquals(0, allocatedPerPublishes(bus, new Event()));
+        assertTrue(receivers[0].received > 0);
+    }
+
+    @Test
+    public void publishWithEventInheritance() {
+        RxEventBus bus = RxEventBus.builder().eventInheritance(true).build();
+        Receiver[] receivers = register(bus, 10);
+        assertEquals(0, allocatedPerPublishes(bus, new Event()));
+        assertEquals(0, allocatedPerPublishes(bus, new Unheard()));
+        assertTrue(receivers[0].received > 0);
+    }
+
+    @Test
+    public void publishKeyed() {
+        RxEventBus bus = RxEventBus.builder().eventInheritance(true).build();
+        KeyedReceiver[] receivers = new KeyedReceiver[10];
+        for (int i = 0; i < receivers.length; i++) {
+            receivers[i] = new KeyedReceiver();
+            bus.register(receivers[i], "key-" + i);
+        }
+        assertEquals(0, allocatedPerPublishes(bus, new Keyed("key-3")));
+        assertEquals(0, allocatedPerPublishes(bus, new Keyed("nobody")));
+        assertTrue(receivers[3].received > 0);
+        assertEquals(0, receivers[4].received);
+    }
+
+    private static Receiver[] register(RxEventBus bus, int count) {
+        Receiver[] receivers = new Receiver[count];
+        for (int i = 0; i < count; i++) {
+            receivers[i] = new Receiver();
+            bus.register(receivers[i]);
+        }
+        return receivers;
+    }
+
+    /**
+     * @return bytes allocated by PUBLISHES posts beyond the slack, 0 if within it
+     */
+    private long allocatedPerPublishes(RxEventBus bus, Object event) {
+        for (int i = 0; i < WARMUP; i++) {
+            bus.post(event);
+        }
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < PUBLISHES; i++) {
+            bus.post(event);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        return allocated <= SLACK ? 0 : allocated;
+    }
+}
@@ -0,0 +1,113 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Publishers racing threads that subscribe and unsubscribe: a receiver registered throughout
+ * gets every event exactly once, and no post() that starts after unregister() returned
+ * reaches the unregistered receiver.
+ */
+public class RegistrationConcurrencyTest {
+
+    private static final int PUBLISHERS = 3;
+    private static final int CHURNERS = 2;
+    private static final int EVENTS = 20000;
+
+    // taken before each post(), so a ticket at or above a cutoff read after unregister()
+    // returned belongs to a post() that started later
+    private static final AtomicLong tickets = new AtomicLong();
+
+    public static class Event {
+        final long ticket;
+
+        Event(long ticket) {
+            this.ticket = ticket;
+        }
+    }
+
+    public static class Stable {
+        final AtomicInteger received = new AtomicInteger();
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received.incrementAndGet();
+        }
+    }
+
+    public static class Churning {
+        final AtomicReference<String> failure;
+        volatile long cutoff = Long.MAX_VALUE;
+
+        Churning(AtomicReference<String> failure) {
+            this.failure = failure;
+        }
+
+        @Subscribe(priority = 1)
+        public void onEvent(Event event) {
+            if (event.ticket >= cutoff) {
+                failure.compareAndSet(null, "event " + event.ticket + " delivered after unregister, cutoff " + cutoff);
+            }
+        }
+    }
+
+    @Test
+    public void churnLosesNothingAndDeliversNothingLate() throws Exception {
+        final RxEventBus bus = RxEventBus.builder().build();
+        Stable stable = new Stable();
+        bus.register(stable);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final AtomicInteger publishing = new AtomicInteger(PUBLISHERS);
+        final AtomicInteger churned = new AtomicInteger();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < EVENTS; i++) {
+                        bus.post(new Event(tickets.getAndIncrement()));
+                    }
+                    publishing.decrementAndGet();
+                }
+            }));
+        }
+        for (int c = 0; c < CHURNERS; c++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    while (publishing.get() > 0) {
+                        Churning receiver = new Churning(failure);
+                        bus.register(receiver);
+                        Thread.yield();
+                        bus.unregister(receiver);
+                        receiver.cutoff = tickets.get();
+                        churned.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertNull(failure.get());
+        assertEquals(PUBLISHERS * EVENTS, stable.received.get());
+        assertTrue(churned.get() > 0);
+        assertTrue(bus.isRegistered(stable));
+    }
+}
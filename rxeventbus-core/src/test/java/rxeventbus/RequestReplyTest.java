@@ -0,0 +1,155 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.functions.Consumer;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * postRequest() completes with the first reply, and times out without one; late and
+ * duplicate replies find nobody waiting.
+ */
+public class RequestReplyTest {
+
+    public static class Query {
+    }
+
+    public static class Responder {
+        final RxEventBus bus;
+        final boolean answer;
+        Query last;
+
+        Responder(RxEventBus bus, boolean answer) {
+            this.bus = bus;
+            this.answer = answer;
+        }
+
+        @Subscribe
+        public void onQuery(Query query) {
+            last = query;
+            if (answer) {
+                bus.postReply(query, "answer");
+            }
+        }
+    }
+
+    @Test
+    public void replyCompletesRequest() {
+        RxEventBus bus = RxEventBus.builder().build();
+        bus.register(new Responder(bus, true));
+
+        TestObserver<String> observer = bus.postRequest(new Query(), String.class, 5, TimeUnit.SECONDS).test();
+
+        observer.awaitTerminalEvent();
+        observer.assertValue("answer");
+    }
+
+    @Test
+    public void timesOutWithoutReply() {
+        RxEventBus bus = RxEventBus.builder().build();
+        Responder responder = new Responder(bus, false);
+        bus.register(responder);
+
+        TestObserver<String> observer = bus.postRequest(new Query(), String.class, 50, TimeUnit.MILLISECONDS).test();
+
+        observer.awaitTerminalEvent(5, TimeUnit.SECONDS);
+        observer.assertError(TimeoutException.class);
+        // too late, nobody waits any more
+        assertFalse(bus.postReply(responder.last, "late"));
+    }
+
+    @Test
+    public void timeoutIsSignalledOffTheTimerThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "async");
+            }
+        });
+        try {
+            RxEventBus bus = RxEventBus.builder().asyncScheduler(Schedulers.from(executor)).build();
+            bus.register(new Responder(bus, false));
+            final AtomicReference<String> thread = new AtomicReference<>();
+            final CountDownLatch failed = new CountDownLatch(1);
+
+            bus.postRequest(new Query(), String.class, 50, TimeUnit.MILLISECONDS).subscribe(
+                    new Consumer<String>() {
+                        @Override
+                        public void accept(String reply) {
+                        }
+                    },
+                    new Consumer<Throwable>() {
+                        @Override
+                        public void accept(Throwable error) {
+                            thread.set(Thread.currentThread().getName());
+                            failed.countDown();
+                        }
+                    });
+
+            assertTrue(failed.await(5, TimeUnit.SECONDS));
+            assertEquals("async", thread.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void duplicateReplyIsRejected() {
+        RxEventBus bus = RxEventBus.builder().build();
+        Responder responder = new Responder(bus, false);
+        bus.register(responder);
+
+        TestObserver<String> observer = bus.postRequest(new Query(), String.class, 5, TimeUnit.SECONDS).test();
+
+        assertTrue(bus.postReply(responder.last, "first"));
+        assertFalse(bus.postReply(responder.last, "second"));
+        observer.assertValue("first");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replyOfWrongTypeIsRejected() {
+        RxEventBus bus = RxEventBus.builder().build();
+        Responder responder = new Responder(bus, false);
+        bus.register(responder);
+        bus.postRequest(new Query(), String.class, 5, TimeUnit.SECONDS).test();
+
+        bus.postReply(responder.last, 42);
+    }
+
+    @Test
+    public void failsWithoutSubscribers() {
+        RxEventBus bus = RxEventBus.builder().build();
+
+        TestObserver<String> observer = bus.postRequest(new Query(), String.class, 5, TimeUnit.SECONDS).test();
+
+        observer.assertError(NoSuchElementException.class);
+    }
+
+    @Test
+    public void samePendingRequestTwiceFails() {
+        RxEventBus bus = RxEventBus.builder().build();
+        bus.register(new Responder(bus, false));
+        Query query = new Query();
+        bus.postRequest(query, String.class, 5, TimeUnit.SECONDS).test();
+
+        TestObserver<String> second = bus.postRequest(query, String.class, 5, TimeUnit.SECONDS).test();
+
+        second.assertError(IllegalStateException.class);
+    }
+}
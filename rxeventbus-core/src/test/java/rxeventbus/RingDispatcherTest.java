@@ -0,0 +1,250 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The ring buffer hands every event over exactly once, in publish order with one consumer,
+ * under each wait strategy, and shuts down even with publishers still waiting for a slot.
+ * A handler posting on a consumer thread never waits on its own ring.
+ * The builder rejects a ring it couldn't build.
+ */
+public class RingDispatcherTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS = 2000;
+
+    static final class Event {
+        final int producer;
+        final int sequence;
+
+        Event(int producer, int sequence) {
+            this.producer = producer;
+            this.sequence = sequence;
+        }
+    }
+
+    public static class Trigger {
+    }
+
+    public static class Reposting {
+        final RxEventBus bus;
+        final CountDownLatch nested = new CountDownLatch(EVENTS);
+        final List<String> threads = new ArrayList<>();
+
+        Reposting(RxEventBus bus) {
+            this.bus = bus;
+        }
+
+        @Subscribe
+        public void onTrigger(Trigger trigger) {
+            // far more than the ring holds
+            for (int i = 0; i < EVENTS; i++) {
+                bus.post(i);
+            }
+        }
+
+        @Subscribe
+        public void onNested(Integer sequence) {
+            threads.add(Thread.currentThread().getName());
+            nested.countDown();
+        }
+    }
+
+    private static void publishConcurrently(final RingDispatcher ring) throws InterruptedException {
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < EVENTS; i++) {
+                        ring.publish(new Event(producer, i));
+                    }
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+    }
+
+    @Test
+    public void oneConsumerKeepsEachProducersOrder() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            final int[] next = new int[PRODUCERS];
+            final AtomicReference<String> failure = new AtomicReference<>();
+            final CountDownLatch done = new CountDownLatch(PRODUCERS * EVENTS);
+            RingDispatcher ring = new RingDispatcher(64, 1, waitStrategy, 8, new RingDispatcher.Handler() {
+                @Override
+                public void onEvent(Object event) {
+                    Event received = (Event) event;
+                    if (received.sequence != next[received.producer]++) {
+                        failure.compareAndSet(null, "producer " + received.producer + " out of order at "
+                                + received.sequence);
+                    }
+                    done.countDown();
+                }
+            });
+            publishConcurrently(ring);
+
+            assertTrue(waitStrategy.name(), done.await(30, TimeUnit.SECONDS));
+            assertEquals(waitStrategy.name(), null, failure.get());
+            ring.shutdown();
+            assertTrue(waitStrategy.name(), ring.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void severalConsumersHandleEachEventOnce() throws Exception {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            final AtomicIntegerArray handled = new AtomicIntegerArray(PRODUCERS * EVENTS);
+            final CountDownLatch done = new CountDownLatch(PRODUCERS * EVENTS);
+            RingDispatcher ring = new RingDispatcher(64, 3, waitStrategy, 4, new RingDispatcher.Handler() {
+                @Override
+                public void onEvent(Object event) {
+                    Event received = (Event) event;
+                    handled.incrementAndGet(received.producer * EVENTS + received.sequence);
+                    done.countDown();
+                }
+            });
+            publishConcurrently(ring);
+
+            assertTrue(waitStrategy.name(), done.await(30, TimeUnit.SECONDS));
+            ring.shutdown();
+            assertTrue(waitStrategy.name(), ring.awaitTermination(5, TimeUnit.SECONDS));
+            for (int i = 0; i < handled.length(); i++) {
+                assertEquals(waitStrategy.name() + " event " + i, 1, handled.get(i));
+            }
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void shutsDownWithPublisherWaitingForSlot() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> handled = new ArrayList<>();
+        final RingDispatcher ring = new RingDispatcher(4, 1, WaitStrategy.PARK, 1, new RingDispatcher.Handler() {
+            @Override
+            public void onEvent(Object event) {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                synchronized (handled) {
+                    handled.add(event);
+                }
+            }
+        });
+        // the consumer holds the first, the ring is full after three more
+        for (int i = 0; i < 4; i++) {
+            ring.publish(i);
+        }
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    ring.publish(4);
+                }
+                catch (Throwable t) {
+                    thrown.set(t);
+                }
+            }
+        });
+        publisher.start();
+        // PARK parks once spinning and yielding didn't free a slot
+        while (publisher.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        ring.shutdown();
+        publisher.join();
+        assertTrue(thrown.get() instanceof IllegalStateException);
+
+        release.countDown();
+        assertTrue(ring.awaitTermination(5, TimeUnit.SECONDS));
+        synchronized (handled) {
+            assertEquals(4, handled.size());
+        }
+    }
+
+    @Test
+    public void failingHandlerLeavesConsumerRunning() throws Exception {
+        final AtomicReference<Throwable> reported = new AtomicReference<>();
+        Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable) {
+                reported.set(throwable);
+            }
+        });
+        try {
+            final CountDownLatch handled = new CountDownLatch(1);
+            RingDispatcher ring = new RingDispatcher(4, 1, WaitStrategy.PARK, 1, new RingDispatcher.Handler() {
+                @Override
+                public void onEvent(Object event) {
+                    if (event instanceof Error) {
+                        throw (Error) event;
+                    }
+                    handled.countDown();
+                }
+            });
+            AssertionError error = new AssertionError("broken handler");
+            ring.publish(error);
+            ring.publish("after");
+
+            assertTrue(handled.await(5, TimeUnit.SECONDS));
+            assertEquals(error, reported.get());
+            ring.shutdown();
+            assertTrue(ring.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        finally {
+            Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void handlerPostingFromConsumerDoesNotWaitOnTheRing() throws Exception {
+        RxEventBus bus = RxEventBus.builder().ringBuffer(4, 1, WaitStrategy.PARK, 1).build();
+        Reposting receiver = new Reposting(bus);
+        bus.register(receiver);
+
+        bus.post(new Trigger());
+
+        assertTrue(receiver.nested.await(5, TimeUnit.SECONDS));
+        bus.shutdown();
+        // delivered on the consumer, inside the trigger's handler
+        for (String thread : receiver.threads) {
+            assertEquals("RxEventBus-ring-0", thread);
+        }
+    }
+
+    @Test
+    public void builderRejectsInvalidRing() {
+        int[][] invalid = {{3, 1, 1}, {0, 1, 1}, {8, 0, 1}, {8, 1, 0}, {8, 1, 16}};
+        for (int[] arguments : invalid) {
+            try {
+                RxEventBus.builder().ringBuffer(arguments[0], arguments[1], WaitStrategy.PARK, arguments[2]);
+                fail("accepted bufferSize " + arguments[0] + ", consumers " + arguments[1] + ", batchSize "
+                        + arguments[2]);
+            }
+            catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+}
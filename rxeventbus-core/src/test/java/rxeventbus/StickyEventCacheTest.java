@@ -0,0 +1,119 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Sticky events reach receivers subscribing later, and the cache stays within its limits.
+ */
+public class StickyEventCacheTest {
+
+    public static class Started {
+    }
+
+    public static class First {
+    }
+
+    public static class Second {
+    }
+
+    public static class Third {
+    }
+
+    public static class Late {
+        final List<Object> received = new ArrayList<>();
+
+        @Subscribe(sticky = true)
+        public void onStarted(Started event) {
+            received.add(event);
+        }
+    }
+
+    public static class NotSticky {
+        final List<Object> received = new ArrayList<>();
+
+        @Subscribe
+        public void onStarted(Started event) {
+            received.add(event);
+        }
+    }
+
+    @Test
+    public void replaysLastEventOnRegistration() {
+        RxEventBus bus = RxEventBus.builder().build();
+        bus.postSticky(new Started());
+        Started last = new Started();
+        bus.postSticky(last);
+
+        Late late = new Late();
+        NotSticky notSticky = new NotSticky();
+        bus.register(late);
+        bus.register(notSticky);
+
+        assertEquals(1, late.received.size());
+        assertSame(last, late.received.get(0));
+        assertEquals(0, notSticky.received.size());
+        assertSame(last, bus.getStickyEvent(Started.class));
+    }
+
+    @Test
+    public void removedEventIsNotReplayed() {
+        RxEventBus bus = RxEventBus.builder().build();
+        bus.postSticky(new Started());
+        bus.removeStickyEvent(Started.class);
+
+        Late late = new Late();
+        bus.register(late);
+
+        assertEquals(0, late.received.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedType() {
+        StickyEventCache cache = new StickyEventCache(2, 0, TimeUnit.MILLISECONDS);
+        cache.put(new First());
+        cache.put(new Second());
+        // First is now the most recently used
+        cache.get(First.class);
+        cache.put(new Third());
+
+        assertNull(cache.get(Second.class));
+        StickyCacheStats stats = cache.getStats();
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getMaxSize());
+        assertEquals(1, stats.getEvictions());
+    }
+
+    @Test
+    public void shrinkingEvictsAtOnce() {
+        StickyEventCache cache = new StickyEventCache(3, 0, TimeUnit.MILLISECONDS);
+        cache.put(new First());
+        cache.put(new Second());
+        cache.put(new Third());
+        cache.setLimits(1, 0, TimeUnit.MILLISECONDS);
+
+        StickyCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getSize());
+        assertEquals(2, stats.getEvictions());
+    }
+
+    @Test
+    public void expiresOldEvents() throws Exception {
+        StickyEventCache cache = new StickyEventCache(4, 50, TimeUnit.MILLISECONDS);
+        cache.put(new First());
+        Thread.sleep(100);
+
+        assertNull(cache.get(First.class));
+        assertEquals(1, cache.getStats().getExpirations());
+        assertEquals(0, cache.getStats().getSize());
+    }
+}
@@ -0,0 +1,53 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Receivers of a class share one cached method array until the cache is invalidated.
+ * RegistrationBenchmark measures what the cache saves.
+ */
+public class SubscriberMethodFinderTest {
+
+    public static class Receiver {
+        @Subscribe
+        public void onString(String s) {}
+
+        @Subscribe
+        public void onInteger(Integer i) {}
+    }
+
+    @Test
+    public void cachesPerClass() {
+        SubscriberMethodFinder finder = new SubscriberMethodFinder();
+        SubscriberMethod[] methods = finder.findSubscriberMethods(Receiver.class);
+
+        assertEquals(2, methods.length);
+        assertSame(methods, finder.findSubscriberMethods(Receiver.class));
+    }
+
+    @Test
+    public void clearCacheScansAgain() {
+        SubscriberMethodFinder finder = new SubscriberMethodFinder();
+        SubscriberMethod[] methods = finder.findSubscriberMethods(Receiver.class);
+        finder.clearCache();
+
+        SubscriberMethod[] rescanned = finder.findSubscriberMethods(Receiver.class);
+        assertNotSame(methods, rescanned);
+        assertEquals(methods.length, rescanned.length);
+    }
+
+    @Test
+    public void invokerStrategyChangeScansAgain() {
+        SubscriberMethodFinder finder = new SubscriberMethodFinder();
+        SubscriberMethod[] methods = finder.findSubscriberMethods(Receiver.class);
+        finder.setInvokerStrategy(InvokerStrategy.REFLECTIVE);
+
+        assertNotSame(methods, finder.findSubscriberMethods(Receiver.class));
+    }
+}
@@ -0,0 +1,193 @@
+package rxeventbus;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Each ThreadMode runs methods on its scheduler, MAIN and BACKGROUND in publish order, and
+ * replacing a scheduler carries over the events still queued for it.
+ */
+public class ThreadModeTest {
+
+    private static final int EVENTS = 100;
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    public static class Event {
+        final int sequence;
+
+        Event(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    public static class Receiver {
+        final List<Integer> received = new ArrayList<>();
+        final Set<String> threads = new HashSet<>();
+        final CountDownLatch done = new CountDownLatch(EVENTS);
+
+        void record(Event event) {
+            synchronized (this) {
+                received.add(event.sequence);
+                threads.add(Thread.currentThread().getName());
+            }
+            done.countDown();
+        }
+    }
+
+    public static class MainReceiver extends Receiver {
+        @Subscribe(threadMode = ThreadMode.MAIN)
+        public void onEvent(Event event) {
+            record(event);
+        }
+    }
+
+    public static class BackgroundReceiver extends Receiver {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Event event) {
+            record(event);
+        }
+    }
+
+    public static class AsyncReceiver extends Receiver {
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        public void onEvent(Event event) {
+            record(event);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+    }
+
+    private Scheduler scheduler(final String name, int threads) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count++);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executors.add(executor);
+        return Schedulers.from(executor);
+    }
+
+    private static void postAll(RxEventBus bus, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bus.post(new Event(i));
+        }
+    }
+
+    private static void assertInOrder(Receiver receiver) {
+        synchronized (receiver) {
+            assertEquals(EVENTS, receiver.received.size());
+            for (int i = 0; i < EVENTS; i++) {
+                assertEquals(i, (int) receiver.received.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void mainRunsOnMainSchedulerInOrder() throws Exception {
+        RxEventBus bus = RxEventBus.builder().mainThreadScheduler(scheduler("main", 1)).build();
+        MainReceiver receiver = new MainReceiver();
+        bus.register(receiver);
+        postAll(bus, 0, EVENTS);
+
+        assertTrue(receiver.done.await(5, TimeUnit.SECONDS));
+        assertInOrder(receiver);
+        assertEquals(1, receiver.threads.size());
+        assertTrue(receiver.threads.contains("main-0"));
+    }
+
+    @Test
+    public void backgroundRunsOnOneWorkerInOrder() throws Exception {
+        // several threads, but one worker of the scheduler delivers
+        RxEventBus bus = RxEventBus.builder().backgroundScheduler(scheduler("background", 4)).build();
+        BackgroundReceiver receiver = new BackgroundReceiver();
+        bus.register(receiver);
+        postAll(bus, 0, EVENTS);
+
+        assertTrue(receiver.done.await(5, TimeUnit.SECONDS));
+        assertInOrder(receiver);
+        for (String thread : receiver.threads) {
+            assertTrue(thread, thread.startsWith("background-"));
+        }
+    }
+
+    @Test
+    public void asyncRunsOnAsyncScheduler() throws Exception {
+        RxEventBus bus = RxEventBus.builder().asyncScheduler(scheduler("async", 4)).build();
+        AsyncReceiver receiver = new AsyncReceiver();
+        bus.register(receiver);
+        postAll(bus, 0, EVENTS);
+
+        assertTrue(receiver.done.await(5, TimeUnit.SECONDS));
+        synchronized (receiver) {
+            assertEquals(EVENTS, new HashSet<>(receiver.received).size());
+            assertFalse(receiver.threads.contains(Thread.currentThread().getName()));
+            for (String thread : receiver.threads) {
+                assertTrue(thread, thread.startsWith("async-"));
+            }
+        }
+    }
+
+    @Test
+    public void replacingMainSchedulerKeepsQueuedEvents() throws Exception {
+        RxEventBus bus = RxEventBus.getDefault();
+        Scheduler blocked = scheduler("blocked", 1);
+        final CountDownLatch release = new CountDownLatch(1);
+        blocked.scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        RxEventBus.setMainThreadScheduler(blocked);
+        MainReceiver receiver = new MainReceiver();
+        bus.register(receiver);
+        try {
+            // queued behind the blocking task
+            postAll(bus, 0, EVENTS / 2);
+            RxEventBus.setMainThreadScheduler(scheduler("main", 1));
+            postAll(bus, EVENTS / 2, EVENTS);
+            release.countDown();
+
+            assertTrue(receiver.done.await(5, TimeUnit.SECONDS));
+            assertInOrder(receiver);
+            assertTrue(receiver.threads.contains("main-0"));
+        }
+        finally {
+            bus.unregister(receiver);
+        }
+    }
+}
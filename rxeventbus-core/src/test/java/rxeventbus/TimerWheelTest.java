@@ -0,0 +1,94 @@
+package rxeventbus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Timeouts run once their delay passed, cancelled ones never, and a failing task leaves the
+ * wheel running. Uses a small wheel of its own rather than the shared one.
+ */
+public class TimerWheelTest {
+
+    private final TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 8);
+    private final AtomicReference<Throwable> reported = new AtomicReference<>();
+    private Thread.UncaughtExceptionHandler defaultHandler;
+
+    @Before
+    public void setUp() {
+        defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable) {
+                reported.set(throwable);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        // the shared wheel must stay the only timer thread for PacingTest
+        wheel.stop();
+        Thread.setDefaultUncaughtExceptionHandler(defaultHandler);
+    }
+
+    @Test
+    public void runsAfterDelay() throws Exception {
+        // several rounds of the 8 bucket wheel
+        final CountDownLatch ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void cancelledTaskNeverRuns() throws Exception {
+        final CountDownLatch ran = new CountDownLatch(1);
+        TimerWheel.Timeout timeout = wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        }, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertFalse(ran.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void failingTaskLeavesWheelRunning() throws Exception {
+        final Error error = new Error("broken task");
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw error;
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+        final CountDownLatch ran = new CountDownLatch(1);
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        }, 20, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        assertEquals(error, reported.get());
+    }
+}
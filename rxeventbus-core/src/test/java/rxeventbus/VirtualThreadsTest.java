@@ -0,0 +1,46 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * A thousand ASYNC handlers blocking at once finish in about the time of one, skipped
+ * before JDK 21.
+ */
+public class VirtualThreadsTest {
+
+    private static final int EVENTS = 1000;
+
+    public static class Event {
+    }
+
+    public static class BlockingReceiver {
+        final CountDownLatch done = new CountDownLatch(EVENTS);
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        public void onEvent(Event event) throws InterruptedException {
+            Thread.sleep(200);
+            done.countDown();
+        }
+    }
+
+    @Test
+    public void blockingHandlersDontNeedPlatformThreads() throws Exception {
+        assumeTrue(VirtualThreads.isAvailable());
+
+        RxEventBus bus = RxEventBus.builder().asyncScheduler(VirtualThreads.scheduler()).build();
+        BlockingReceiver receiver = new BlockingReceiver();
+        bus.register(receiver);
+        for (int i = 0; i < EVENTS; i++) {
+            bus.post(new Event());
+        }
+        assertTrue(receiver.done.await(5, TimeUnit.SECONDS));
+    }
+}
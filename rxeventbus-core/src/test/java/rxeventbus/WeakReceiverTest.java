@@ -0,0 +1,95 @@
+package rxeventbus;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rxeventbus.annotation.Subscribe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * With weak receivers the bus unsubscribes receivers nobody else references once they are
+ * collected; by default it holds them.
+ */
+public class WeakReceiverTest {
+
+    public static class Event {
+    }
+
+    public static class Receiver {
+        final AtomicInteger received;
+
+        Receiver(AtomicInteger received) {
+            this.received = received;
+        }
+
+        @Subscribe
+        public void onEvent(Event event) {
+            received.incrementAndGet();
+        }
+    }
+
+    /**
+     * Collects garbage until the bus reaped a receiver or a few seconds passed.
+     */
+    private static void awaitReaped(RxEventBus bus, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (bus.getReapedReceivers() < expected && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void collectedReceiverIsUnsubscribed() throws Exception {
+        RxEventBus bus = RxEventBus.builder().weakReceivers(true).logger(EventBusLogger.NONE).build();
+        AtomicInteger received = new AtomicInteger();
+        Receiver kept = new Receiver(received);
+        bus.register(kept);
+        bus.register(new Receiver(received));
+        bus.post(new Event());
+        assertEquals(2, received.get());
+
+        awaitReaped(bus, 1);
+        assertEquals(1, bus.getReapedReceivers());
+        assertEquals(1, bus.getReapedReceivers(Receiver.class));
+        bus.post(new Event());
+        assertEquals(3, received.get());
+        assertTrue(bus.isRegistered(kept));
+    }
+
+    @Test
+    public void unregisteredReceiverIsNotCountedAsReaped() throws Exception {
+        RxEventBus bus = RxEventBus.builder().weakReceivers(true).logger(EventBusLogger.NONE).build();
+        AtomicInteger received = new AtomicInteger();
+        Receiver unregistered = new Receiver(received);
+        bus.register(unregistered);
+        bus.unregister(unregistered);
+        unregistered = null;
+        // reaped in its place, so the reaper is known to have run
+        bus.register(new Receiver(received));
+
+        awaitReaped(bus, 1);
+        System.gc();
+        Thread.sleep(100);
+        assertEquals(1, bus.getReapedReceivers());
+    }
+
+    @Test
+    public void strongByDefault() throws Exception {
+        RxEventBus bus = RxEventBus.builder().build();
+        AtomicInteger received = new AtomicInteger();
+        bus.register(new Receiver(received));
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        bus.post(new Event());
+        assertEquals(1, received.get());
+        assertEquals(0, bus.getReapedReceivers());
+    }
+}
@@ -0,0 +1,33 @@
+package rxeventbus.android;
+
+import android.support.annotation.NonNull;
+
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import rxeventbus.RxEventBus;
+
+/**
+ * Android defaults for the plain Java bus in rxeventbus-core: MAIN subscribers on the
+ * Looper's main thread and messages to logcat.
+ *
+ * <b>
+ * AndroidEventBus.builder().addIndex(new MyEventBusIndex()).installDefault();
+ * </b>
+ */
+
+public final class AndroidEventBus {
+
+    public static final String TAG = "RxEventBus";
+
+    private AndroidEventBus() {
+    }
+
+    /**
+     * @return a builder set up for Android, to adjust and then build() or installDefault()
+     */
+    @NonNull
+    public static RxEventBus.Builder builder() {
+        return RxEventBus.builder()
+                .mainThreadScheduler(AndroidSchedulers.mainThread())
+                .logger(new LogcatLogger(TAG));
+    }
+}
@@ -0,0 +1,55 @@
+package rxeventbus.android;
+
+import android.support.annotation.NonNull;
+import android.util.Log;
+
+import java.util.logging.Level;
+
+import rxeventbus.EventBusLogger;
+
+/**
+ * Forwards RxEventBus messages to logcat under one tag. Whether a level is logged follows
+ * Log.isLoggable(), so {@code adb shell setprop log.tag.RxEventBus DEBUG} shows
+ * subscriptions.
+ */
+
+public final class LogcatLogger implements EventBusLogger {
+
+    private final String tag;
+
+    public LogcatLogger(@NonNull String tag) {
+        this.tag = tag;
+    }
+
+    @Override
+    public boolean isLoggable(Level level) {
+        return Log.isLoggable(tag, priority(level));
+    }
+
+    @Override
+    public void log(Level level, String message) {
+        Log.println(priority(level), tag, message);
+    }
+
+    @Override
+    public void log(Level level, String message, Throwable throwable) {
+        Log.println(priority(level), tag, message + '\n' + Log.getStackTraceString(throwable));
+    }
+
+    private static int priority(Level level) {
+        int value = level.intValue();
+        if (value >= Level.SEVERE.intValue()) {
+            return Log.ERROR;
+        }
+        if (value >= Level.WARNING.intValue()) {
+            return Log.WARN;
+        }
+        if (value >= Level.INFO.intValue()) {
+            return Log.INFO;
+        }
+        if (value >= Level.FINE.intValue()) {
+            return Log.DEBUG;
+        }
+        return Log.VERBOSE;
+    }
+}